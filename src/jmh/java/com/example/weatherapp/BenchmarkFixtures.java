@@ -0,0 +1,42 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the recorded OpenWeather payloads under {@code src/jmh/resources/fixtures}.
+ */
+final class BenchmarkFixtures {
+
+    static final String CURRENT = "current-london.json";
+    static final String FORECAST = "forecast-london.json";
+    static final String AIR_POLLUTION = "air-pollution-london.json";
+
+    private BenchmarkFixtures() {}
+
+    static String load(String name) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing benchmark fixture: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Mirrors the ObjectMapper Spring Boot configures for HTTP responses.
+     */
+    static ObjectMapper responseMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization cost of the {@link WeatherResponse} bodies returned by the API, in each
+ * negotiable format.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class WeatherResponseSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper responseMapper;
+
+    private WeatherResponse current;
+    private WeatherResponse forecast;
+    private WeatherResponse hourly;
+    private WeatherResponse airQuality;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        WeatherService weatherService = new WeatherService();
+        responseMapper = BenchmarkFixtures.responseMapper();
+        if ("cbor".equals(format)) {
+            responseMapper = responseMapper.copyWith(new CBORFactory());
+        } else if ("smile".equals(format)) {
+            responseMapper = responseMapper.copyWith(new SmileFactory());
+        }
+
+        current = WeatherResponse.success("current", weatherService.parseCurrentWeather(
+                objectMapper.readTree(BenchmarkFixtures.load(BenchmarkFixtures.CURRENT))));
+        forecast = WeatherResponse.success("forecast", Map.of("forecasts", weatherService.parseDailyForecast(
+                objectMapper.readTree(BenchmarkFixtures.load(BenchmarkFixtures.FORECAST)))));
+        hourly = WeatherResponse.success("hourly", Map.of("hourly", weatherService.parseHourlyForecast(
+                objectMapper.readTree(BenchmarkFixtures.load(BenchmarkFixtures.FORECAST)))));
+        airQuality = WeatherResponse.success("air_quality", weatherService.parseAirQuality(
+                objectMapper.readTree(BenchmarkFixtures.load(BenchmarkFixtures.AIR_POLLUTION))));
+    }
+
+    @Benchmark
+    public byte[] serializeCurrent() throws Exception {
+        return responseMapper.writeValueAsBytes(current);
+    }
+
+    @Benchmark
+    public byte[] serializeForecast() throws Exception {
+        return responseMapper.writeValueAsBytes(forecast);
+    }
+
+    @Benchmark
+    public byte[] serializeHourly() throws Exception {
+        return responseMapper.writeValueAsBytes(hourly);
+    }
+
+    @Benchmark
+    public byte[] serializeAirQuality() throws Exception {
+        return responseMapper.writeValueAsBytes(airQuality);
+    }
+}
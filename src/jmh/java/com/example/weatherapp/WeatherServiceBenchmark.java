@@ -0,0 +1,93 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream JSON to response mapping and recommendation hot paths of {@link WeatherService}.
+ * The "parse" benchmarks include Jackson tree parsing; the "map" benchmarks start from a
+ * pre-parsed tree so the two costs can be told apart.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class WeatherServiceBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WeatherService weatherService;
+
+    private String currentJson;
+    private String forecastJson;
+    private String airPollutionJson;
+
+    private JsonNode currentNode;
+    private JsonNode forecastNode;
+    private JsonNode airPollutionNode;
+
+    private Map<String, Object> currentWeather;
+
+    @Setup
+    public void setUp() throws Exception {
+        weatherService = new WeatherService();
+
+        currentJson = BenchmarkFixtures.load(BenchmarkFixtures.CURRENT);
+        forecastJson = BenchmarkFixtures.load(BenchmarkFixtures.FORECAST);
+        airPollutionJson = BenchmarkFixtures.load(BenchmarkFixtures.AIR_POLLUTION);
+
+        currentNode = objectMapper.readTree(currentJson);
+        forecastNode = objectMapper.readTree(forecastJson);
+        airPollutionNode = objectMapper.readTree(airPollutionJson);
+
+        currentWeather = weatherService.parseCurrentWeather(currentNode);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseCurrentWeather() throws Exception {
+        return weatherService.parseCurrentWeather(objectMapper.readTree(currentJson));
+    }
+
+    @Benchmark
+    public Map<String, Object> mapCurrentWeather() {
+        return weatherService.parseCurrentWeather(currentNode);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> parseDailyForecast() throws Exception {
+        return weatherService.parseDailyForecast(objectMapper.readTree(forecastJson));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapDailyForecast() {
+        return weatherService.parseDailyForecast(forecastNode);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapHourlyForecast() {
+        return weatherService.parseHourlyForecast(forecastNode);
+    }
+
+    @Benchmark
+    public Map<String, Object> parseAirQuality() throws Exception {
+        return weatherService.parseAirQuality(objectMapper.readTree(airPollutionJson));
+    }
+
+    @Benchmark
+    public Map<String, Object> mapAirQuality() {
+        return weatherService.parseAirQuality(airPollutionNode);
+    }
+
+    @Benchmark
+    public List<String> activityRecommendations() {
+        return weatherService.generateActivityRecommendations(currentWeather);
+    }
+
+    @Benchmark
+    public List<String> clothingRecommendations() {
+        return weatherService.generateClothingRecommendations(currentWeather);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.weatherapp;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop workload generator for the {@code /api} endpoints. A fixed number of workers issue
+ * requests back to back for the configured duration; cities are drawn from a Zipf distribution so
+ * the traffic has a realistic hot set. Throughput and latency percentiles are reported per endpoint.
+ *
+ * <pre>
+ *   --target=http://localhost:8080
+ *   --duration=60          measured seconds
+ *   --warmup=10            seconds of traffic before measuring starts
+ *   --concurrency=32       concurrent workers
+ *   --cities=200           size of the city population
+ *   --zipf=1.1             skew of the city popularity (0 = uniform)
+ *   --units=metric:70,imperial:30
+ *   --mix=weather:40,forecast:15,hourly:10,air-quality:10,uv:5,activities:5,clothing:5,history:5,search:5
+ * </pre>
+ *
+ * Run with: ./gradlew loadTest -PloadTestArgs="--concurrency=64 --duration=120"
+ */
+public class LoadGenerator {
+
+    private static final String[] KNOWN_CITIES = {
+            "London", "Paris", "New York", "Tokyo", "Delhi", "Mumbai", "Berlin", "Madrid", "Rome", "Sydney",
+            "Toronto", "Chicago", "Singapore", "Dubai", "Istanbul", "Moscow", "Cairo", "Lagos", "Seoul", "Bangkok"
+    };
+
+    private final URI target;
+    private final HttpClient client;
+    private final List<Weighted> mix;
+    private final List<Weighted> unitMix;
+    private final String[] cities;
+    private final double[] cityCdf;
+
+    public LoadGenerator(Map<String, String> options) {
+        this.target = URI.create(options.getOrDefault("target", "http://localhost:8080"));
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+        this.mix = parseWeights(options.getOrDefault("mix",
+                "weather:40,forecast:15,hourly:10,air-quality:10,uv:5,activities:5,clothing:5,history:5,search:5"));
+        this.unitMix = parseWeights(options.getOrDefault("units", "metric:70,imperial:30"));
+        this.cities = cityPopulation(Integer.parseInt(options.getOrDefault("cities", "200")));
+        this.cityCdf = zipfCdf(cities.length, Double.parseDouble(options.getOrDefault("zipf", "1.1")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = OpenWeatherStubServer.parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+
+        LoadGenerator generator = new LoadGenerator(options);
+        System.out.printf("Target %s, %d workers, %ds warmup + %ds measured, %d cities%n",
+                generator.target, concurrency, warmupSeconds, durationSeconds, generator.cities.length);
+
+        generator.run(concurrency, TimeUnit.SECONDS.toNanos(warmupSeconds), null);
+        Map<String, Recorder> results = new TreeMap<>();
+        long started = System.nanoTime();
+        generator.run(concurrency, TimeUnit.SECONDS.toNanos(durationSeconds), results);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        report(results, elapsedSeconds);
+    }
+
+    private void run(int concurrency, long durationNanos, Map<String, Recorder> results) throws InterruptedException {
+        if (durationNanos <= 0) return;
+        long deadline = System.nanoTime() + durationNanos;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Map<String, Recorder>> perWorker = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            Map<String, Recorder> local = new HashMap<>();
+            perWorker.add(local);
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    issue(local);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(durationNanos + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS);
+        if (results != null) {
+            for (Map<String, Recorder> local : perWorker) {
+                local.forEach((endpoint, recorder) ->
+                        results.computeIfAbsent(endpoint, k -> new Recorder()).merge(recorder));
+            }
+        }
+    }
+
+    private void issue(Map<String, Recorder> local) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String endpoint = pick(mix, random);
+        String city = encode(cities[pickCity(random)]);
+        String units = pick(unitMix, random);
+
+        String path;
+        switch (endpoint) {
+            case "weather":
+                path = "/api/weather?city=" + city + "&units=" + units;
+                break;
+            case "coordinates":
+                path = String.format(Locale.ROOT, "/api/weather/coordinates?lat=%.2f&lon=%.2f&units=%s",
+                        random.nextDouble(-60, 60), random.nextDouble(-180, 180), units);
+                break;
+            case "forecast":
+                path = "/api/forecast?city=" + city + "&units=" + units;
+                break;
+            case "hourly":
+                path = "/api/forecast/hourly?city=" + city + "&units=" + units;
+                break;
+            case "air-quality":
+                path = "/api/air-quality?city=" + city;
+                break;
+            case "uv":
+                path = "/api/uv?city=" + city;
+                break;
+            case "history":
+                long daysAgo = 1 + random.nextInt(30);
+                path = "/api/history?city=" + city + "&units=" + units
+                        + "&timestamp=" + (System.currentTimeMillis() / 1000 - daysAgo * 86400);
+                break;
+            case "activities":
+                path = "/api/recommendations/activities?city=" + city + "&units=" + units;
+                break;
+            case "clothing":
+                path = "/api/recommendations/clothing?city=" + city + "&units=" + units;
+                break;
+            case "search":
+                path = "/api/cities/search?query=" + city;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(target.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        local.computeIfAbsent(endpoint, k -> new Recorder()).record(System.nanoTime() - start, status);
+    }
+
+    private int pickCity(ThreadLocalRandom random) {
+        int index = Arrays.binarySearch(cityCdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cities.length - 1);
+    }
+
+    private static String pick(List<Weighted> weights, ThreadLocalRandom random) {
+        double total = weights.get(weights.size() - 1).cumulative;
+        double roll = random.nextDouble(total);
+        for (Weighted weighted : weights) {
+            if (roll < weighted.cumulative) return weighted.name;
+        }
+        return weights.get(weights.size() - 1).name;
+    }
+
+    private static void report(Map<String, Recorder> results, double elapsedSeconds) {
+        System.out.println();
+        System.out.printf("%-12s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Recorder total = new Recorder();
+        for (Map.Entry<String, Recorder> entry : results.entrySet()) {
+            printRow(entry.getKey(), entry.getValue(), elapsedSeconds);
+            total.merge(entry.getValue());
+        }
+        printRow("TOTAL", total, elapsedSeconds);
+
+        System.out.println();
+        System.out.println("Status codes: " + total.statusCounts);
+    }
+
+    private static void printRow(String name, Recorder recorder, double elapsedSeconds) {
+        long[] sorted = recorder.sortedLatencies();
+        System.out.printf(Locale.ROOT, "%-12s %9d %9.1f %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, sorted.length, sorted.length / elapsedSeconds, recorder.errors,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 99.9), percentile(sorted, 100));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static String[] cityPopulation(int size) {
+        String[] population = new String[size];
+        for (int i = 0; i < size; i++) {
+            population[i] = i < KNOWN_CITIES.length ? KNOWN_CITIES[i] : "Town" + i;
+        }
+        return population;
+    }
+
+    private static double[] zipfCdf(int size, double skew) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static List<Weighted> parseWeights(String spec) {
+        List<Weighted> weights = new ArrayList<>();
+        double cumulative = 0;
+        for (String part : spec.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            cumulative += nameAndWeight.length > 1 ? Double.parseDouble(nameAndWeight[1]) : 1;
+            weights.add(new Weighted(nameAndWeight[0], cumulative));
+        }
+        return weights;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static class Weighted {
+        final String name;
+        final double cumulative;
+
+        Weighted(String name, double cumulative) {
+            this.name = name;
+            this.cumulative = cumulative;
+        }
+    }
+
+    private static class Recorder {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+        final Map<Integer, Long> statusCounts = new TreeMap<>();
+
+        void record(long latencyNanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (status < 200 || status >= 300) errors++;
+            statusCounts.merge(status, 1L, Long::sum);
+        }
+
+        void merge(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            other.statusCounts.forEach((status, n) -> statusCounts.merge(status, n, Long::sum));
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
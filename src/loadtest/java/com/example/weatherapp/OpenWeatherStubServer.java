@@ -0,0 +1,331 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the OpenWeather endpoints used by {@link WeatherService}, so load tests
+ * don't burn API quota. Responses are synthesized deterministically from the requested city or
+ * coordinates; latency and failures are injected according to the options below.
+ *
+ * <pre>
+ *   --port=8089          listen port
+ *   --latency-ms=80      base latency added to every response
+ *   --jitter-ms=40       uniform random jitter on top of the base latency
+ *   --slow-rate=0.01     fraction of requests that stall (stragglers)
+ *   --slow-ms=3000       how long a straggler stalls
+ *   --error-rate=0.0     fraction of requests answered with 500
+ *   --threads=64         worker threads
+ * </pre>
+ *
+ * Cities whose name starts with "unknown" are answered with 404, as OpenWeather does for
+ * names it cannot resolve. Lookups by {@code id} work for any city previously requested by name. Run with: ./gradlew loadTestStub -PstubArgs="--latency-ms=120"
+ */
+public class OpenWeatherStubServer {
+
+    private final int latencyMs;
+    private final int jitterMs;
+    private final double slowRate;
+    private final int slowMs;
+    private final double errorRate;
+
+    private final Map<String, AtomicLong> requestCounts = new HashMap<>();
+    private final Map<Long, String> citiesById = new ConcurrentHashMap<>();
+
+    public OpenWeatherStubServer(Map<String, String> options) {
+        this.latencyMs = Integer.parseInt(options.getOrDefault("latency-ms", "80"));
+        this.jitterMs = Integer.parseInt(options.getOrDefault("jitter-ms", "40"));
+        this.slowRate = Double.parseDouble(options.getOrDefault("slow-rate", "0.01"));
+        this.slowMs = Integer.parseInt(options.getOrDefault("slow-ms", "3000"));
+        this.errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0.0"));
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int port = Integer.parseInt(options.getOrDefault("port", "8089"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+
+        OpenWeatherStubServer stub = new OpenWeatherStubServer(options);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/data/2.5/weather", exchange -> stub.handle(exchange, "weather"));
+        server.createContext("/data/2.5/forecast", exchange -> stub.handle(exchange, "forecast"));
+        server.createContext("/data/2.5/air_pollution", exchange -> stub.handle(exchange, "air_pollution"));
+        server.createContext("/data/2.5/air_pollution/forecast", exchange -> stub.handle(exchange, "air_pollution_forecast"));
+        server.createContext("/data/2.5/uvi", exchange -> stub.handle(exchange, "uvi"));
+        server.createContext("/geo/1.0/direct", exchange -> stub.handle(exchange, "geo"));
+        server.createContext("/stats", stub::handleStats);
+        server.setExecutor(Executors.newFixedThreadPool(threads));
+        server.start();
+
+        System.out.printf("OpenWeather stub listening on http://localhost:%d (latency=%dms+/-%dms, slow=%.3f@%dms, errors=%.3f)%n",
+                port, stub.latencyMs, stub.jitterMs, stub.slowRate, stub.slowMs, stub.errorRate);
+        System.out.printf("Start the app with --openweather.base-url=http://localhost:%d%n", port);
+    }
+
+    private void handle(HttpExchange exchange, String endpoint) throws IOException {
+        try {
+            counter(endpoint).incrementAndGet();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            injectLatency();
+
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 500, "{\"cod\":500,\"message\":\"Internal server error (injected)\"}");
+                return;
+            }
+
+            String city = query.containsKey("id") ? citiesById.get(Long.parseLong(query.get("id"))) : query.get("q");
+            if (query.containsKey("id") && city == null
+                    || city != null && city.toLowerCase(Locale.ROOT).startsWith("unknown")) {
+                respond(exchange, 404, "{\"cod\":\"404\",\"message\":\"city not found\"}");
+                return;
+            }
+            if (city != null) {
+                citiesById.putIfAbsent(cityId(displayName(city)), city);
+            }
+
+            double lat = query.containsKey("lat") ? Double.parseDouble(query.get("lat")) : latitudeOf(city);
+            double lon = query.containsKey("lon") ? Double.parseDouble(query.get("lon")) : longitudeOf(city);
+            String name = city != null ? displayName(city) : "Stubville";
+
+            String body;
+            switch (endpoint) {
+                case "weather":
+                    body = currentWeather(name, lat, lon);
+                    break;
+                case "forecast":
+                    body = forecast(name, lat, lon);
+                    break;
+                case "air_pollution":
+                    body = airPollution(lat, lon);
+                    break;
+                case "air_pollution_forecast":
+                    body = airPollutionForecast(lat, lon);
+                    break;
+                case "uvi":
+                    body = String.format(Locale.ROOT,
+                            "{\"lat\":%.4f,\"lon\":%.4f,\"date\":%d,\"value\":%.2f}",
+                            lat, lon, nowSeconds(), 1 + Math.abs(seed(name) % 90) / 10.0);
+                    break;
+                case "geo":
+                    body = geocode(name, lat, lon);
+                    break;
+                default:
+                    respond(exchange, 404, "{}");
+                    return;
+            }
+            respond(exchange, 200, body);
+        } catch (RuntimeException e) {
+            respond(exchange, 400, "{\"cod\":400,\"message\":\"" + e.getMessage() + "\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder("{");
+        synchronized (requestCounts) {
+            requestCounts.forEach((endpoint, count) -> {
+                if (body.length() > 1) body.append(',');
+                body.append('"').append(endpoint).append("\":").append(count.get());
+            });
+        }
+        body.append('}');
+        respond(exchange, 200, body.toString());
+        exchange.close();
+    }
+
+    private void injectLatency() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextInt(jitterMs + 1) : 0);
+        if (random.nextDouble() < slowRate) {
+            delay += slowMs;
+        }
+        if (delay <= 0) return;
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AtomicLong counter(String endpoint) {
+        synchronized (requestCounts) {
+            return requestCounts.computeIfAbsent(endpoint, k -> new AtomicLong());
+        }
+    }
+
+    // Payload builders: shaped like the real responses, values derived from the location
+
+    private String currentWeather(String name, double lat, double lon) {
+        long seed = seed(name);
+        long now = nowSeconds();
+        double temp = baseTemperature(lat, seed);
+        return String.format(Locale.ROOT,
+                "{\"coord\":{\"lon\":%.4f,\"lat\":%.4f},"
+                        + "\"weather\":[{\"id\":803,\"main\":\"%s\",\"description\":\"%s\",\"icon\":\"%s\"}],"
+                        + "\"base\":\"stations\","
+                        + "\"main\":{\"temp\":%.2f,\"feels_like\":%.2f,\"temp_min\":%.2f,\"temp_max\":%.2f,\"pressure\":%d,\"humidity\":%d},"
+                        + "\"visibility\":10000,\"wind\":{\"speed\":%.2f,\"deg\":%d},\"clouds\":{\"all\":%d},"
+                        + "\"dt\":%d,\"sys\":{\"country\":\"ST\",\"sunrise\":%d,\"sunset\":%d},"
+                        + "\"timezone\":%d,\"id\":%d,\"name\":\"%s\",\"cod\":200}",
+                lon, lat, condition(seed), description(seed), icon(seed),
+                temp, temp - 0.8, temp - 1.5, temp + 1.5, 1000 + Math.abs(seed % 40), 40 + Math.abs(seed % 55),
+                Math.abs(seed % 150) / 10.0, Math.abs(seed % 360), Math.abs(seed % 100),
+                now, now - 6 * 3600, now + 6 * 3600,
+                timezoneOffset(lon), cityId(name), name);
+    }
+
+    private String forecast(String name, double lat, double lon) {
+        long seed = seed(name);
+        long start = (nowSeconds() / 10800 + 1) * 10800;
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            long itemSeed = seed + i * 7919L;
+            double temp = baseTemperature(lat, seed) + Math.sin(i * Math.PI / 4) * 4;
+            if (i > 0) list.append(',');
+            list.append(String.format(Locale.ROOT,
+                    "{\"dt\":%d,\"main\":{\"temp\":%.2f,\"feels_like\":%.2f,\"temp_min\":%.2f,\"temp_max\":%.2f,"
+                            + "\"pressure\":%d,\"humidity\":%d},"
+                            + "\"weather\":[{\"id\":800,\"main\":\"%s\",\"description\":\"%s\",\"icon\":\"%s\"}],"
+                            + "\"clouds\":{\"all\":%d},\"wind\":{\"speed\":%.2f,\"deg\":%d},\"visibility\":10000,"
+                            + "\"pop\":%.2f}",
+                    start + i * 10800L, temp, temp - 0.6, temp - 0.8, temp + 0.5,
+                    1000 + Math.abs(itemSeed % 40), 40 + Math.abs(itemSeed % 55),
+                    condition(itemSeed), description(itemSeed), icon(itemSeed),
+                    Math.abs(itemSeed % 100), Math.abs(itemSeed % 150) / 10.0, Math.abs(itemSeed % 360),
+                    Math.abs(itemSeed % 100) / 100.0));
+        }
+        return String.format(Locale.ROOT,
+                "{\"cod\":\"200\",\"message\":0,\"cnt\":40,\"list\":[%s],"
+                        + "\"city\":{\"name\":\"%s\",\"coord\":{\"lat\":%.4f,\"lon\":%.4f},\"country\":\"ST\",\"timezone\":%d}}",
+                list, name, lat, lon, timezoneOffset(lon));
+    }
+
+    private String airPollution(double lat, double lon) {
+        long seed = Double.hashCode(lat) * 31L + Double.hashCode(lon);
+        return String.format(Locale.ROOT, "{\"coord\":{\"lon\":%.4f,\"lat\":%.4f},\"list\":[%s]}",
+                lon, lat, airPollutionItem(seed, nowSeconds()));
+    }
+
+    // Hourly readings from the start of the current hour, four days ahead like the real endpoint
+    private String airPollutionForecast(double lat, double lon) {
+        long seed = Double.hashCode(lat) * 31L + Double.hashCode(lon);
+        long start = nowSeconds() / 3600 * 3600;
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < 96; i++) {
+            if (i > 0) list.append(',');
+            list.append(airPollutionItem(seed + i * 7919L, start + i * 3600L));
+        }
+        return String.format(Locale.ROOT, "{\"coord\":{\"lon\":%.4f,\"lat\":%.4f},\"list\":[%s]}", lon, lat, list);
+    }
+
+    private static String airPollutionItem(long seed, long dt) {
+        return String.format(Locale.ROOT,
+                "{\"main\":{\"aqi\":%d},"
+                        + "\"components\":{\"co\":%.2f,\"no\":%.2f,\"no2\":%.2f,\"o3\":%.2f,\"so2\":%.2f,"
+                        + "\"pm2_5\":%.2f,\"pm10\":%.2f,\"nh3\":%.2f},\"dt\":%d}",
+                1 + Math.abs(seed % 5),
+                200.0 + Math.abs(seed % 100), Math.abs(seed % 10) / 10.0, 5.0 + Math.abs(seed % 30),
+                30.0 + Math.abs(seed % 60), Math.abs(seed % 50) / 10.0, 2.0 + Math.abs(seed % 20),
+                4.0 + Math.abs(seed % 30), Math.abs(seed % 20) / 10.0, dt);
+    }
+
+    private String geocode(String name, double lat, double lon) {
+        return String.format(Locale.ROOT,
+                "[{\"name\":\"%s\",\"lat\":%.4f,\"lon\":%.4f,\"country\":\"ST\",\"state\":\"Stub State\"}]",
+                name, lat, lon);
+    }
+
+    private static double baseTemperature(double lat, long seed) {
+        return 30 - Math.abs(lat) / 2.5 + Math.abs(seed % 60) / 10.0 - 3;
+    }
+
+    private static String condition(long seed) {
+        return new String[]{"Clear", "Clouds", "Rain", "Drizzle", "Snow"}[(int) Math.abs(seed % 5)];
+    }
+
+    private static String description(long seed) {
+        return new String[]{"clear sky", "scattered clouds", "light rain", "light drizzle", "light snow"}[(int) Math.abs(seed % 5)];
+    }
+
+    private static String icon(long seed) {
+        return new String[]{"01d", "03d", "10d", "09d", "13d"}[(int) Math.abs(seed % 5)];
+    }
+
+    private static double latitudeOf(String city) {
+        return city == null ? 0 : (seed(city) % 1400) / 20.0;
+    }
+
+    private static double longitudeOf(String city) {
+        return city == null ? 0 : (seed(city) / 1400 % 3600) / 20.0;
+    }
+
+    private static int timezoneOffset(double lon) {
+        return (int) Math.round(lon / 15.0) * 3600;
+    }
+
+    private static long seed(String name) {
+        return name.toLowerCase(Locale.ROOT).hashCode() * 2654435761L;
+    }
+
+    private static long cityId(String name) {
+        return Math.abs(seed(name) % 9_000_000) + 1_000_000;
+    }
+
+    private static String displayName(String city) {
+        String name = city.split(",")[0].trim().replace("\"", "").replace("\\", "");
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
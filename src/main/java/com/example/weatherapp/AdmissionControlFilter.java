@@ -0,0 +1,217 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for {@code /api}. Each client (the authenticated user if the container has
+ * verified one, else its IP) gets a token bucket and is answered 429 once it runs dry. Admitted requests then need one of a
+ * fixed number of concurrency slots; a short bounded queue absorbs bursts, and anything beyond
+ * it is answered 503 with {@code Retry-After} straight away instead of piling up behind slow
+ * upstream calls.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final int SWEEP_EVERY = 4096;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean admissionEnabled;
+    private final Semaphore slots;
+    private final int maxQueue;
+    private final long queueTimeoutMs;
+    private final long retryAfterSeconds;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final boolean rateLimitEnabled;
+    private final double tokensPerSecond;
+    private final double burst;
+    private final boolean trustForwardedFor;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong acquisitions = new AtomicLong();
+
+    private final Counter overloaded;
+    private final Counter rateLimited;
+
+    public AdmissionControlFilter(ObjectMapper objectMapper,
+                                  MeterRegistry registry,
+                                  @Value("${weather.admission.enabled:true}") boolean admissionEnabled,
+                                  @Value("${weather.admission.max-concurrent:64}") int maxConcurrent,
+                                  @Value("${weather.admission.max-queue:32}") int maxQueue,
+                                  @Value("${weather.admission.queue-timeout-ms:200}") long queueTimeoutMs,
+                                  @Value("${weather.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                                  @Value("${weather.ratelimit.enabled:true}") boolean rateLimitEnabled,
+                                  @Value("${weather.ratelimit.requests-per-second:10}") double tokensPerSecond,
+                                  @Value("${weather.ratelimit.burst:40}") double burst,
+                                  @Value("${weather.ratelimit.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        this.objectMapper = objectMapper;
+        this.admissionEnabled = admissionEnabled;
+        this.slots = new Semaphore(maxConcurrent);
+        this.maxQueue = maxQueue;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.tokensPerSecond = tokensPerSecond;
+        this.burst = burst;
+        this.trustForwardedFor = trustForwardedFor;
+
+        Gauge.builder("weather.admission.active", slots, s -> maxConcurrent - s.availablePermits())
+                .description("API requests currently holding a concurrency slot")
+                .register(registry);
+        Gauge.builder("weather.admission.queued", queued, AtomicInteger::get)
+                .description("API requests waiting for a concurrency slot")
+                .register(registry);
+        Gauge.builder("weather.ratelimit.clients", buckets, Map::size)
+                .description("Clients with a live rate limit bucket")
+                .register(registry);
+        this.overloaded = rejections(registry, "overloaded");
+        this.rateLimited = rejections(registry, "rate_limited");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (rateLimitEnabled) {
+            long waitSeconds = bucket(clientId(request)).tryAcquire(System.nanoTime());
+            if (waitSeconds > 0) {
+                rateLimited.increment();
+                reject(response, 429, waitSeconds, "Rate limit exceeded, retry later");
+                return;
+            }
+        }
+
+        if (!admissionEnabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!acquireSlot()) {
+            overloaded.increment();
+            reject(response, 503, retryAfterSeconds, "Server is busy, retry shortly");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private boolean acquireSlot() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueue) {
+            queued.decrementAndGet();
+            return false;
+        }
+        try {
+            return slots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, long retryAfter, String message) throws IOException {
+        response.setStatus(status);
+        response.setHeader("Retry-After", String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), WeatherResponse.error("error", message));
+    }
+
+    private String clientId(HttpServletRequest request) {
+        // Never a client-supplied id: a caller could dodge its bucket by sending a new one each time
+        Principal user = request.getUserPrincipal();
+        if (user != null) {
+            return "user:" + user.getName();
+        }
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return "ip:" + (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucket(String clientId) {
+        if (acquisitions.incrementAndGet() % SWEEP_EVERY == 0) {
+            // A bucket that has refilled completely is indistinguishable from a new one, so dropping it loses nothing
+            long now = System.nanoTime();
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.computeIfAbsent(clientId, key -> new TokenBucket(burst, tokensPerSecond));
+    }
+
+    private static Counter rejections(MeterRegistry registry, String reason) {
+        return Counter.builder("weather.admission.rejections")
+                .description("API requests rejected before reaching the controller")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double perNano;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(double capacity, double perSecond) {
+            this.capacity = capacity;
+            this.perNano = perSecond / 1e9;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        // 0 when a token was taken, otherwise the whole seconds until one will be available
+        synchronized long tryAcquire(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / perNano / 1e9));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.weatherapp;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Current conditions over a bounding box, for map overlays.
+ *
+ * <p>The box is covered by cells of a fixed global grid ({@code resolution} degrees), so a cell
+ * keeps the same key whichever box it appears in and panning the map mostly hits cached cells.
+ * Missing cells are fetched by coordinates in parallel, limited per request and by the upstream
+ * quota; cells that could not be filled in time come back as nulls for the client to re-request.
+ * A cell whose fetch failed is not tried again for {@code failed-cell-ttl-ms}, so a box with a
+ * bad cell doesn't spend upstream calls on it with every pan.
+ */
+@Service
+public class AreaWeatherService {
+
+    // About a kilometre, already finer than the conditions reported for a point
+    private static final double MIN_RESOLUTION = 0.01;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private WeatherMetrics metrics;
+
+    @Autowired
+    private UpstreamQuota upstreamQuota;
+
+    @Value("${weather.area.max-cells:400}")
+    private int maxCells;
+
+    @Value("${weather.area.max-fetches-per-request:50}")
+    private int maxFetchesPerRequest;
+
+    @Value("${weather.area.parallelism:8}")
+    private int parallelism;
+
+    @Value("${weather.area.timeout-ms:3000}")
+    private long timeoutMs;
+
+    @Value("${weather.area.failed-cell-ttl-ms:60000}")
+    private long failedCellTtlMs;
+
+    @Value("${weather.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Per-cell conditions in canonical units, keyed by resolution and cell index
+    private WeatherCache<Map<String, Object>> cellCache;
+    private static final long CELL_CACHE_DURATION_MS = 10 * 60 * 1000; // 10 minutes
+
+    // Cells whose last fetch failed; they stay empty until this expires
+    private WeatherCache<Boolean> failedCells;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        cellCache = new WeatherCache<>("area_cell", CELL_CACHE_DURATION_MS, cacheMaxEntries);
+        failedCells = new WeatherCache<>("area_cell_failed", failedCellTtlMs, cacheMaxEntries);
+        metrics.bindCache(cellCache);
+        metrics.bindCache(failedCells);
+        AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "area-weather-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param bbox       {@code minLon,minLat,maxLon,maxLat}
+     * @param resolution cell size in degrees
+     */
+    public WeatherResponse getAreaWeather(String bbox, double resolution, String units) throws Exception {
+        double[] box = parseBbox(bbox);
+        if (!(resolution >= MIN_RESOLUTION) || resolution > 10) {
+            throw new IllegalArgumentException("resolution must be between " + MIN_RESOLUTION + " and 10 degrees");
+        }
+
+        long firstCol = (long) Math.floor(box[0] / resolution);
+        long lastCol = (long) Math.floor(box[2] / resolution);
+        long firstRow = (long) Math.floor(box[1] / resolution);
+        long lastRow = (long) Math.floor(box[3] / resolution);
+        // Checked as longs: a fine grid over a large box has more cells than an int holds
+        long cellCount = (lastCol - firstCol + 1) * (lastRow - firstRow + 1);
+        if (cellCount > maxCells) {
+            throw new IllegalArgumentException("Area covers " + cellCount + " cells, the limit is " + maxCells);
+        }
+        int cols = (int) (lastCol - firstCol + 1);
+        int rows = (int) (lastRow - firstRow + 1);
+
+        double[] lats = new double[rows];
+        double[] lons = new double[cols];
+        for (int r = 0; r < rows; r++) lats[r] = round(Math.min(90, (firstRow + r + 0.5) * resolution));
+        for (int c = 0; c < cols; c++) lons[c] = round(Math.min(180, (firstCol + c + 0.5) * resolution));
+
+        Map<String, Object>[][] cells = lookupCells(resolution, firstRow, firstCol, lats, lons);
+
+        // Grid rows run south to north, columns west to east
+        Double[][] temperature = new Double[rows][cols];
+        Double[][] windSpeed = new Double[rows][cols];
+        Integer[][] humidity = new Integer[rows][cols];
+        String[][] icon = new String[rows][cols];
+        int missing = 0;
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                Map<String, Object> cell = cells[r][c];
+                if (cell == null) {
+                    missing++;
+                    continue;
+                }
+                temperature[r][c] = UnitConverter.temperature(((Number) cell.get("temperature")).doubleValue(), units);
+                windSpeed[r][c] = UnitConverter.windSpeed(((Number) cell.get("windSpeed")).doubleValue(), units);
+                humidity[r][c] = ((Number) cell.get("humidity")).intValue();
+                icon[r][c] = (String) cell.get("icon");
+            }
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("bbox", box);
+        data.put("resolution", resolution);
+        data.put("rows", rows);
+        data.put("cols", cols);
+        data.put("lat", lats);
+        data.put("lon", lons);
+        data.put("temperature", temperature);
+        data.put("windSpeed", windSpeed);
+        data.put("humidity", humidity);
+        data.put("icon", icon);
+        data.put("missing", missing);
+
+        WeatherResponse weatherResponse = new WeatherResponse();
+        weatherResponse.setType("area");
+        weatherResponse.setSuccess(true);
+        weatherResponse.setData(data);
+        return weatherResponse;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object>[][] lookupCells(double resolution, long firstRow, long firstCol,
+                                                double[] lats, double[] lons) {
+        Map<String, Object>[][] cells = new Map[lats.length][lons.length];
+        List<int[]> toFetch = new ArrayList<>();
+        for (int r = 0; r < lats.length; r++) {
+            for (int c = 0; c < lons.length; c++) {
+                String key = cellKey(resolution, firstRow + r, firstCol + c);
+                cells[r][c] = cellCache.get(key);
+                if (cells[r][c] == null && toFetch.size() < maxFetchesPerRequest && failedCells.get(key) == null) {
+                    toFetch.add(new int[]{r, c});
+                }
+            }
+        }
+        if (toFetch.isEmpty()) {
+            return cells;
+        }
+
+        try (RequestTiming.Span span = RequestTiming.span("area.fetch")) {
+            // Calls are only counted against the quota once a worker makes them, so the batch is cut to
+            // what is left up front and each task checks again in case other requests got there first
+            int budget = (int) Math.min(toFetch.size(), upstreamQuota.remaining());
+            List<Future<Map<String, Object>>> futures = new ArrayList<>(budget);
+            for (int[] cell : toFetch.subList(0, budget)) {
+                double lat = lats[cell[0]];
+                double lon = lons[cell[1]];
+                futures.add(executor.submit(() -> upstreamQuota.hasHeadroom() ? weatherService.currentWeatherAt(lat, lon) : null));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            for (int i = 0; i < futures.size(); i++) {
+                int[] cell = toFetch.get(i);
+                String key = cellKey(resolution, firstRow + cell[0], firstCol + cell[1]);
+                try {
+                    Map<String, Object> weather = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (weather == null) {
+                        // Skipped for want of quota; the client can ask again
+                        continue;
+                    }
+                    cells[cell[0]][cell[1]] = weather;
+                    cellCache.put(key, weather);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    // Failed: left empty for a while rather than fetched again on the next pan
+                    failedCells.put(key, Boolean.TRUE);
+                } catch (Exception e) {
+                    // Timed out: the cell stays empty and the client can ask again
+                    futures.get(i).cancel(true);
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static String cellKey(double resolution, long row, long col) {
+        return resolution + "|" + row + "|" + col;
+    }
+
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat");
+        }
+        double[] box = new double[4];
+        for (int i = 0; i < 4; i++) {
+            box[i] = Double.parseDouble(parts[i].trim());
+        }
+        if (box[0] > box[2] || box[1] > box[3] || box[0] < -180 || box[2] > 180 || box[1] < -90 || box[3] > 90) {
+            throw new IllegalArgumentException("bbox must be minLon,minLat,maxLon,maxLat within valid coordinates");
+        }
+        return box;
+    }
+
+    private static double round(double degrees) {
+        return Math.round(degrees * 1e6) / 1e6;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves the {@link WeatherService} caches to a gzipped JSON file on graceful shutdown and loads
+ * them back on startup, so a restart doesn't begin with a cold cache. Entries keep their original
+ * timestamps and anything that expired while the app was down is dropped.
+ *
+ * <p>The restore runs as an {@link ApplicationRunner}, which Spring Boot completes before it reports
+ * the application as ready, so the readiness probe stays down until the caches are warm.
+ */
+@Component
+public class CacheSnapshotter implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotter.class);
+    private static final int FORMAT_VERSION = 3;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Value("${weather.cache.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.cache.snapshot.path:data/cache-snapshot.json.gz}")
+    private String path;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            restore();
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        if (enabled) {
+            save();
+        }
+    }
+
+    void save() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("version", FORMAT_VERSION);
+        snapshot.put("createdAt", System.currentTimeMillis());
+
+        Map<String, List<Map<String, Object>>> caches = new LinkedHashMap<>();
+        int total = 0;
+        for (WeatherCache<?> cache : weatherService.getCaches()) {
+            List<Map<String, Object>> entries = new ArrayList<>();
+            for (WeatherCache.Snapshot<?> entry : cache.snapshot()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("k", entry.key);
+                item.put("t", entry.timestamp);
+                item.put("v", entry.value);
+                entries.add(item);
+            }
+            caches.put(cache.getName(), entries);
+            total += entries.size();
+        }
+        snapshot.put("caches", caches);
+
+        Path target = Paths.get(path);
+        try {
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            // Write beside the target and move into place so a crash mid-write can't leave a torn file
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "cache-snapshot", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                objectMapper.writeValue(out, snapshot);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved {} cache entries to {}", total, target);
+        } catch (IOException e) {
+            log.warn("Could not save cache snapshot to {}: {}", target, e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void restore() {
+        Path source = Paths.get(path);
+        if (!Files.exists(source)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int restored = 0;
+        int expired = 0;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(source))) {
+            JsonNode snapshot = objectMapper.readTree(in);
+            if (snapshot.path("version").asInt() != FORMAT_VERSION) {
+                log.info("Ignoring cache snapshot {} with unsupported version", source);
+                return;
+            }
+            JsonNode caches = snapshot.path("caches");
+            for (WeatherCache<?> cache : weatherService.getCaches()) {
+                for (JsonNode entry : caches.path(cache.getName())) {
+                    Object value = objectMapper.treeToValue(entry.get("v"), Object.class);
+                    boolean fresh = ((WeatherCache<Object>) cache).restore(
+                            entry.get("k").asText(), entry.get("t").asLong(), value);
+                    if (fresh) {
+                        restored++;
+                    } else {
+                        expired++;
+                    }
+                }
+            }
+            log.info("Restored {} cache entries from {} in {}ms ({} expired)",
+                    restored, source, System.currentTimeMillis() - start, expired);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not restore cache snapshot from {}: {}", source, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.weatherapp;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * Raw OpenWeather response shared between application instances. Documents are removed by
+ * a TTL index on {@code expiresAt}; see {@link SharedWeatherCache}.
+ */
+@Document(collection = "weather_cache")
+public class CachedUpstreamResponse {
+
+    @Id
+    private String key;
+
+    private String endpoint;
+    private String body;
+    private Date createdAt;
+    private Date expiresAt;
+
+    public CachedUpstreamResponse() {}
+
+    public CachedUpstreamResponse(String key, String endpoint, String body, Date createdAt, Date expiresAt) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.body = body;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isExpired() {
+        return expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis();
+    }
+}
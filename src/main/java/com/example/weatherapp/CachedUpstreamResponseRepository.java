@@ -0,0 +1,8 @@
+package com.example.weatherapp;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CachedUpstreamResponseRepository extends MongoRepository<CachedUpstreamResponse, String> {
+}
@@ -0,0 +1,34 @@
+package com.example.weatherapp;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical spelling of user-typed place names, so that {@code "London"}, {@code " london "}
+ * and {@code "LONDON , gb"} share one alias entry and one upstream request.
+ */
+final class CityNames {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMMA = Pattern.compile("\\s*,\\s*");
+
+    private CityNames() {
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFC).trim();
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        normalized = COMMA.matcher(normalized).replaceAll(",");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    static String encode(String name) {
+        return URLEncoder.encode(name, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.weatherapp;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * OpenWeather does not know the requested city.
+ */
+public class CityNotFoundException extends WeatherException {
+
+    public CityNotFoundException(String message, Throwable cause) {
+        super(HttpStatus.NOT_FOUND, message, 0, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.weatherapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Columnar form of a time series such as the hourly or daily forecast: one array per field
+ * instead of one map per step, so field names are written once and numbers go out as primitive
+ * arrays. Repetitive text fields are dictionary-encoded as an index into a per-field dictionary.
+ *
+ * <pre>
+ * {"length": 8,
+ *  "columns": {"temperature": [14.8, 13.2, ...], "icon": [0, 0, 1, ...], "datetime": ["12:00", ...]},
+ *  "dictionaries": {"icon": ["01d", "02n"]}}
+ * </pre>
+ */
+final class ColumnarSeries {
+
+    private static final Set<String> DICTIONARY_FIELDS = Set.of("description", "icon", "main", "dayOfWeek");
+
+    private ColumnarSeries() {
+    }
+
+    static Map<String, Object> of(List<Map<String, Object>> rows) {
+        Map<String, Object> columns = new HashMap<>();
+        Map<String, Object> dictionaries = new HashMap<>();
+
+        for (String field : fields(rows)) {
+            if (DICTIONARY_FIELDS.contains(field) && allOfType(rows, field, String.class)) {
+                Map<String, Integer> codes = new LinkedHashMap<>();
+                int[] encoded = new int[rows.size()];
+                for (int i = 0; i < encoded.length; i++) {
+                    encoded[i] = codes.computeIfAbsent((String) rows.get(i).get(field), value -> codes.size());
+                }
+                columns.put(field, encoded);
+                dictionaries.put(field, new ArrayList<>(codes.keySet()));
+            } else if (allOfType(rows, field, Integer.class) || allOfType(rows, field, Long.class)) {
+                long[] values = new long[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = ((Number) rows.get(i).get(field)).longValue();
+                }
+                columns.put(field, values);
+            } else if (allOfType(rows, field, Number.class)) {
+                double[] values = new double[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = ((Number) rows.get(i).get(field)).doubleValue();
+                }
+                columns.put(field, values);
+            } else {
+                // Mixed or missing values keep their boxed form so nothing is lost
+                Object[] values = new Object[rows.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rows.get(i).get(field);
+                }
+                columns.put(field, values);
+            }
+        }
+
+        Map<String, Object> series = new HashMap<>();
+        series.put("length", rows.size());
+        series.put("columns", columns);
+        series.put("dictionaries", dictionaries);
+        return series;
+    }
+
+    private static Set<String> fields(List<Map<String, Object>> rows) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (Map<String, Object> row : rows) {
+            fields.addAll(row.keySet());
+        }
+        return fields;
+    }
+
+    private static boolean allOfType(List<Map<String, Object>> rows, String field, Class<?> type) {
+        for (Map<String, Object> row : rows) {
+            if (!type.isInstance(row.get(field))) return false;
+        }
+        return true;
+    }
+}
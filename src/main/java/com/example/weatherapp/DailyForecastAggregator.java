@@ -0,0 +1,152 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolls the 3-hourly forecast list up into calendar days in a single pass.
+ *
+ * <p>Days are cut in the city's local time, taken from the UTC offset OpenWeather reports for
+ * the city, not the server's zone. Each day keeps primitive running totals (min/max/mean
+ * temperature, precipitation, max wind, condition counts) plus the item closest to local noon,
+ * which supplies the representative humidity, wind and icon.
+ */
+final class DailyForecastAggregator {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int SECONDS_PER_DAY = 86400;
+    private static final int NOON = 12 * 3600;
+
+    private DailyForecastAggregator() {
+    }
+
+    static List<Map<String, Object>> aggregate(JsonNode forecast, int maxDays) {
+        JsonNode list = forecast.get("list");
+        JsonNode city = forecast.get("city");
+        long offset = city != null && city.has("timezone") ? city.get("timezone").asLong() : 0;
+
+        List<Map<String, Object>> days = new ArrayList<>();
+        Day day = null;
+        for (JsonNode item : list) {
+            long localSeconds = item.get("dt").asLong() + offset;
+            long epochDay = Math.floorDiv(localSeconds, SECONDS_PER_DAY);
+            if (day == null || day.epochDay != epochDay) {
+                if (day != null) {
+                    days.add(day.toMap());
+                    if (days.size() >= maxDays) return days;
+                }
+                day = new Day(epochDay);
+            }
+            day.add(item, (int) Math.floorMod(localSeconds, SECONDS_PER_DAY));
+        }
+        if (day != null && days.size() < maxDays) {
+            days.add(day.toMap());
+        }
+        return days;
+    }
+
+    private static final class Day {
+        final long epochDay;
+
+        int count;
+        double minTemp = Double.POSITIVE_INFINITY;
+        double maxTemp = Double.NEGATIVE_INFINITY;
+        double tempSum;
+        double rain;
+        double snow;
+        double maxWind;
+        double maxPop;
+
+        // Conditions seen today, in order of first appearance; a day has at most eight items
+        final String[] conditions = new String[8];
+        final int[] conditionCounts = new int[8];
+        final JsonNode[] conditionItems = new JsonNode[8];
+        final int[] conditionNoonDistance = new int[8];
+        int conditionCount;
+
+        JsonNode midday;
+        int middayDistance = Integer.MAX_VALUE;
+
+        Day(long epochDay) {
+            this.epochDay = epochDay;
+        }
+
+        void add(JsonNode item, int secondOfDay) {
+            JsonNode main = item.get("main");
+            minTemp = Math.min(minTemp, main.get("temp_min").asDouble());
+            maxTemp = Math.max(maxTemp, main.get("temp_max").asDouble());
+            tempSum += main.get("temp").asDouble();
+            count++;
+
+            JsonNode wind = item.get("wind");
+            if (wind != null) maxWind = Math.max(maxWind, wind.get("speed").asDouble());
+            rain += precipitation(item, "rain");
+            snow += precipitation(item, "snow");
+            maxPop = Math.max(maxPop, item.path("pop").asDouble());
+
+            int distance = Math.abs(secondOfDay - NOON);
+            if (distance < middayDistance) {
+                middayDistance = distance;
+                midday = item;
+            }
+
+            String condition = item.get("weather").get(0).get("main").asText();
+            int i = 0;
+            while (i < conditionCount && !conditions[i].equals(condition)) i++;
+            if (i == conditionCount) {
+                if (i == conditions.length) return;
+                conditions[i] = condition;
+                conditionNoonDistance[i] = Integer.MAX_VALUE;
+                conditionCount++;
+            }
+            conditionCounts[i]++;
+            if (distance < conditionNoonDistance[i]) {
+                conditionNoonDistance[i] = distance;
+                conditionItems[i] = item;
+            }
+        }
+
+        Map<String, Object> toMap() {
+            int dominant = 0;
+            for (int i = 1; i < conditionCount; i++) {
+                if (conditionCounts[i] > conditionCounts[dominant]) dominant = i;
+            }
+
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            Map<String, Object> dayForecast = new HashMap<>();
+            dayForecast.put("date", date.format(DATE_FORMAT));
+            dayForecast.put("dayOfWeek", date.getDayOfWeek().toString());
+
+            dayForecast.put("minTemp", minTemp);
+            dayForecast.put("maxTemp", maxTemp);
+            dayForecast.put("meanTemp", Math.round(tempSum / count * 100.0) / 100.0);
+
+            // Description and icon come from the dominant condition's reading nearest noon
+            JsonNode weather = conditionItems[dominant].get("weather").get(0);
+            dayForecast.put("description", weather.get("description").asText());
+            dayForecast.put("main", conditions[dominant]);
+            dayForecast.put("icon", weather.get("icon").asText());
+
+            dayForecast.put("humidity", midday.get("main").get("humidity").asInt());
+            dayForecast.put("windSpeed", midday.get("wind").get("speed").asDouble());
+            dayForecast.put("maxWindSpeed", maxWind);
+
+            dayForecast.put("rain", Math.round(rain * 100.0) / 100.0);
+            dayForecast.put("snow", Math.round(snow * 100.0) / 100.0);
+            dayForecast.put("precipitation", Math.round((rain + snow) * 100.0) / 100.0);
+            dayForecast.put("precipitationProbability", maxPop);
+            return dayForecast;
+        }
+
+        private static double precipitation(JsonNode item, String kind) {
+            JsonNode volume = item.get(kind);
+            return volume != null ? volume.path("3h").asDouble() : 0;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Encoded JSON of hot responses, written straight to the servlet output on a hit instead of
+ * building a {@link WeatherResponse} and running it through Jackson again.
+ *
+ * <p>Each entry remembers the {@link WeatherService} cache entry it was built from and is only
+ * used while that is still the cached instance, so it never outlives the data. The timestamp is
+ * the one per-request field: bodies are stored without it, and a fresh
+ * {@code {"timestamp":"...",} is written in front of the rest of the object on every hit. Large
+ * bodies also keep a deflated copy; gzip clients get a stored block with the fresh head followed
+ * by that copy, so nothing is compressed per request. Requests that negotiate CBOR or Smile, and
+ * the first request after a refresh, take the normal path.
+ */
+@Component
+public class EncodedResponseCache {
+
+    private static final byte[] HEAD_START = "{\"timestamp\":".getBytes(StandardCharsets.UTF_8);
+    // Magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WeatherMetrics metrics;
+
+    @Value("${weather.response-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.response-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${weather.response-cache.gzip-min-bytes:512}")
+    private int gzipMinBytes;
+
+    // Entries die with their source anyway; the TTL only bounds how long superseded ones linger
+    private WeatherCache<Encoded> cache;
+    private static final long CACHE_DURATION_MS = 30 * 60 * 1000; // 30 minutes
+
+    @PostConstruct
+    void init() {
+        cache = new WeatherCache<>("encoded_response", CACHE_DURATION_MS, maxEntries);
+        metrics.bindCache(cache);
+    }
+
+    /**
+     * Answers from the encoded bytes for {@code key} if they were built from the current source,
+     * and runs {@code onHit} since the handler is skipped. Otherwise calls the handler; when the
+     * source is known the result is encoded, kept and written directly. The source is only looked
+     * up for JSON requests with the cache enabled. Returns null once the response has been written.
+     */
+    public ResponseEntity<WeatherResponse> respond(String key, Supplier<Object> sourceLookup, Runnable onHit,
+                                                   Callable<WeatherResponse> handler,
+                                                   HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (!enabled || !acceptsJson(request)) {
+            return ResponseEntity.ok(handler.call());
+        }
+        Object source = sourceLookup.get();
+        if (source == null) {
+            return ResponseEntity.ok(handler.call());
+        }
+
+        Encoded encoded = cache.get(key);
+        if (encoded != null && encoded.source == source) {
+            onHit.run();
+        } else {
+            // Tagged with the entry seen before the call; if it was refreshed meanwhile the tag won't match and we re-encode
+            encoded = encode(source, handler.call());
+            cache.put(key, encoded);
+        }
+        write(encoded, request, response);
+        return null;
+    }
+
+    private Encoded encode(Object source, WeatherResponse body) throws IOException {
+        try (RequestTiming.Span span = RequestTiming.span("encode")) {
+            body.setTimestamp(null);
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] rest = Arrays.copyOfRange(json, 1, json.length);
+            return new Encoded(source, rest, rest.length >= gzipMinBytes ? deflate(rest) : null);
+        }
+    }
+
+    private void write(Encoded encoded, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        byte[] head = head();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.addHeader("Vary", "Accept, Accept-Encoding");
+        if (encoded.deflated != null && acceptsGzip(request)) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength(gzipLength(head, encoded));
+            writeGzip(response.getOutputStream(), head, encoded);
+        } else {
+            response.setContentLength(head.length + encoded.rest.length);
+            OutputStream out = response.getOutputStream();
+            out.write(head);
+            out.write(encoded.rest);
+        }
+    }
+
+    // {"timestamp":"<now>",  serialized by the same mapper, so it matches the normal path exactly
+    private byte[] head() throws IOException {
+        byte[] timestamp = objectMapper.writeValueAsBytes(LocalDateTime.now());
+        byte[] head = new byte[HEAD_START.length + timestamp.length + 1];
+        System.arraycopy(HEAD_START, 0, head, 0, HEAD_START.length);
+        System.arraycopy(timestamp, 0, head, HEAD_START.length, timestamp.length);
+        head[head.length - 1] = ',';
+        return head;
+    }
+
+    static int gzipLength(byte[] head, Encoded encoded) {
+        return GZIP_HEADER.length + 5 + head.length + encoded.deflated.length + 8;
+    }
+
+    /**
+     * One gzip member: the head as a non-final stored block, then the cached deflate stream (which
+     * ends in the final block), then the CRC and length of the whole uncompressed body.
+     */
+    static void writeGzip(OutputStream out, byte[] head, Encoded encoded) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(head);
+        crc.update(encoded.rest);
+        int length = head.length + encoded.rest.length;
+
+        out.write(GZIP_HEADER);
+        out.write(new byte[]{0, (byte) head.length, (byte) (head.length >>> 8), (byte) ~head.length, (byte) (~head.length >>> 8)});
+        out.write(head);
+        out.write(encoded.deflated);
+        long checksum = crc.getValue();
+        out.write(new byte[]{
+                (byte) checksum, (byte) (checksum >>> 8), (byte) (checksum >>> 16), (byte) (checksum >>> 24),
+                (byte) length, (byte) (length >>> 8), (byte) (length >>> 16), (byte) (length >>> 24)});
+    }
+
+    // Raw deflate (no zlib wrapper) so it can be embedded in a gzip member
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    // Anything that would negotiate CBOR or Smile goes through the message converters instead
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader("Accept");
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        return !accept.contains("cbor") && !accept.contains("smile")
+                && (accept.contains("json") || accept.contains("*/*") || accept.contains("application/*"));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String token = coding.replace(" ", "");
+            if (token.startsWith("gzip")) {
+                return !token.matches("gzip;q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    static final class Encoded {
+        final Object source;
+        final byte[] rest;     // the serialized body after its opening brace
+        final byte[] deflated; // raw deflate of rest, or null if too small to be worth it
+
+        Encoded(Object source, byte[] rest, byte[] deflated) {
+            this.source = source;
+            this.rest = rest;
+            this.deflated = deflated;
+        }
+    }
+}
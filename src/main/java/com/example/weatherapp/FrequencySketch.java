@@ -0,0 +1,128 @@
+package com.example.weatherapp;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate access counts for an unbounded set of keys in fixed memory: a count-min sketch of
+ * four rows of 8-bit counters packed eight to a long, updated with CAS so recording never locks.
+ * A key's estimate is the smallest of its four counters, so it can overcount on collisions but
+ * never undercounts.
+ *
+ * <p>Counts age: once {@code 10 * width} increments have been recorded every counter is halved,
+ * so the estimates follow what is popular now rather than what was popular since startup. Each
+ * halving bumps {@link #generation()}.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 0xFF;
+    private static final long HALF_MASK = 0x7F7F7F7F7F7F7F7FL;
+    private static final long[] SEEDS = {
+            0x97cb3127c2a9b9d5L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final AtomicLongArray table;
+    private final int rowMask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicBoolean aging = new AtomicBoolean();
+
+    /**
+     * Sized for roughly {@code expectedKeys} distinct keys in the working set.
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(64, Math.min(expectedKeys, 1 << 24)) - 1) << 1;
+        this.table = new AtomicLongArray(DEPTH * width / 8);
+        this.rowMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Counts one access to {@code key} and returns its new estimate.
+     */
+    public int increment(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, incrementAt(index(hash, row)));
+        }
+        if (additions.incrementAndGet() >= sampleSize) {
+            age();
+        }
+        return estimate;
+    }
+
+    public int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int estimate = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counterAt(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * How many times the counters have been halved.
+     */
+    public int generation() {
+        return generation.get();
+    }
+
+    public int sampleSize() {
+        return sampleSize;
+    }
+
+    // Saturates at MAX_COUNT; returns the counter's value after the increment
+    private int incrementAt(int counter) {
+        int word = counter >>> 3;
+        int shift = (counter & 7) << 3;
+        while (true) {
+            long current = table.get(word);
+            int count = (int) (current >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT) {
+                return count;
+            }
+            if (table.compareAndSet(word, current, current + (1L << shift))) {
+                return count + 1;
+            }
+        }
+    }
+
+    private int counterAt(int counter) {
+        return (int) (table.get(counter >>> 3) >>> ((counter & 7) << 3)) & MAX_COUNT;
+    }
+
+    // One thread halves the table while others keep counting; whether an increment landing meanwhile is halved too only blurs the estimate
+    private void age() {
+        if (!aging.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (int i = 0; i < table.length(); i++) {
+                long current;
+                do {
+                    current = table.get(i);
+                } while (!table.compareAndSet(i, current, (current >>> 1) & HALF_MASK));
+            }
+            additions.updateAndGet(n -> n / 2);
+            generation.incrementAndGet();
+        } finally {
+            aging.set(false);
+        }
+    }
+
+    // Row r occupies counters [r * width, (r + 1) * width)
+    private int index(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * (rowMask + 1) + ((int) h & rowMask);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.weatherapp;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the hottest cities warm: every {@code weather.hotkeys.refresh-interval-ms} it re-fetches
+ * the current conditions and forecast of each {@link HotKeyTracker} heavy hitter whose cached
+ * entry would expire before the next round, most popular first. These are optional upstream
+ * calls, so a round stops as soon as the quota has no headroom left.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.hotkeys.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class HotKeyRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(HotKeyRefresher.class);
+
+    @Autowired
+    private HotKeyTracker hotKeys;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @Autowired
+    private UpstreamQuota quota;
+
+    @Value("${weather.hotkeys.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hotkey-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    void refresh() {
+        // Anything expiring before the next round plus a round's worth of slack
+        long aheadMs = 2 * refreshIntervalMs;
+        for (String cityId : hotKeys.hotKeys().keySet()) {
+            if (!quota.hasHeadroom()) {
+                return;
+            }
+            try {
+                weatherService.refreshAhead(cityId, aheadMs);
+            } catch (Exception e) {
+                log.debug("Refresh ahead failed for city {}: {}", cityId, e.getMessage());
+            }
+        }
+    }
+}
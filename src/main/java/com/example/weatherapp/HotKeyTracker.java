@@ -0,0 +1,115 @@
+package com.example.weatherapp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which cities are popular right now. Every city lookup is counted in a {@link FrequencySketch}
+ * keyed by OpenWeather city id. The counts decide admission to the per-city caches, and pick a
+ * small set of heavy hitters that {@link HotKeyRefresher} refreshes ahead of expiry.
+ *
+ * <p>A key joins the heavy hitters when its estimate beats the weakest member's. The weakest
+ * estimate is remembered so most lookups only touch the sketch; after the sketch ages it is
+ * forgotten and worked out again by the next candidate.
+ */
+@Component
+public class HotKeyTracker implements WeatherCache.Admission {
+
+    private final FrequencySketch sketch;
+    private final int topK;
+    private final Set<String> heavyHitters = ConcurrentHashMap.newKeySet();
+
+    private volatile int floor;
+    private volatile int floorGeneration = -1;
+
+    public HotKeyTracker(@Value("${weather.cache.max-entries:10000}") int expectedKeys,
+                         @Value("${weather.hotkeys.top-k:50}") int topK) {
+        this.sketch = new FrequencySketch(expectedKeys);
+        this.topK = topK;
+    }
+
+    public void record(String key) {
+        int estimate = sketch.increment(key);
+        if (topK <= 0 || heavyHitters.contains(key)) {
+            return;
+        }
+        // Unlocked reads only decide whether to take the lock; offer re-checks under it
+        if (heavyHitters.size() < topK || floorGeneration != sketch.generation() || estimate > floor) {
+            offer(key, estimate);
+        }
+    }
+
+    // Adds the candidate while there is room, else swaps it in for the weakest member if it is more popular; rare enough to serialize
+    private synchronized void offer(String key, int estimate) {
+        if (heavyHitters.contains(key)) {
+            return;
+        }
+        if (heavyHitters.size() < topK) {
+            heavyHitters.add(key);
+            return;
+        }
+        String weakest = null;
+        int weakestCount = Integer.MAX_VALUE;
+        int runnerUp = Integer.MAX_VALUE;
+        for (String member : heavyHitters) {
+            int count = sketch.frequency(member);
+            if (count < weakestCount) {
+                runnerUp = weakestCount;
+                weakest = member;
+                weakestCount = count;
+            } else if (count < runnerUp) {
+                runnerUp = count;
+            }
+        }
+        if (weakest != null && estimate > weakestCount) {
+            heavyHitters.remove(weakest);
+            heavyHitters.add(key);
+            floor = Math.min(runnerUp, estimate);
+        } else {
+            floor = weakestCount;
+        }
+        floorGeneration = sketch.generation();
+    }
+
+    /**
+     * TinyLFU: the candidate only displaces the victim if it has been looked up more often recently.
+     */
+    @Override
+    public boolean admit(String candidate, String victim) {
+        return sketch.frequency(candidate) > sketch.frequency(victim);
+    }
+
+    public int frequency(String key) {
+        return sketch.frequency(key);
+    }
+
+    /**
+     * The heavy hitters with their estimated recent lookups, most popular first.
+     */
+    public Map<String, Integer> hotKeys() {
+        // Estimates are read once up front; they keep moving while we sort
+        List<Map.Entry<String, Integer>> counted = new ArrayList<>();
+        for (String key : heavyHitters) {
+            counted.add(Map.entry(key, sketch.frequency(key)));
+        }
+        counted.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> hot = new LinkedHashMap<>();
+        counted.forEach(entry -> hot.put(entry.getKey(), entry.getValue()));
+        return hot;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getSampleSize() {
+        return sketch.sampleSize();
+    }
+}
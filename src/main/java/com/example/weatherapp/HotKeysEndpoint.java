@@ -0,0 +1,44 @@
+package com.example.weatherapp;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/hotkeys}: the cities {@link HotKeyTracker} currently counts as hottest, with
+ * their estimated recent lookups.
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeysEndpoint {
+
+    @Autowired
+    private HotKeyTracker hotKeys;
+
+    @Autowired
+    private WeatherService weatherService;
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        List<Map<String, Object>> cities = new ArrayList<>();
+        hotKeys.hotKeys().forEach((cityId, frequency) -> {
+            Map<String, Object> city = new HashMap<>();
+            city.put("cityId", cityId);
+            city.put("city", weatherService.cachedCityName(cityId));
+            city.put("frequency", frequency);
+            cities.add(city);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("topK", hotKeys.getTopK());
+        result.put("sampleSize", hotKeys.getSampleSize());
+        result.put("cities", cities);
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.weatherapp;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.event.KeyValuePair;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes each log event as one JSON object per line: timestamp, level, logger, thread and
+ * message, then the MDC (which carries {@code correlationId}) and any key-value pairs added with
+ * SLF4J's fluent API as top-level fields, and the stack trace as {@code exception}.
+ */
+public class JsonLogEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    // Backed by a mapper so key-value pairs can be maps, lists or numbers as well as strings
+    private final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+
+    @Override
+    public byte[] headerBytes() {
+        return EMPTY;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator json = jsonFactory.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+            json.writeStringField("level", event.getLevel().toString());
+            json.writeStringField("logger", event.getLoggerName());
+            json.writeStringField("thread", event.getThreadName());
+            json.writeStringField("message", event.getFormattedMessage());
+
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                json.writeStringField(entry.getKey(), entry.getValue());
+            }
+            List<KeyValuePair> keyValuePairs = event.getKeyValuePairs();
+            if (keyValuePairs != null) {
+                for (KeyValuePair pair : keyValuePairs) {
+                    json.writeObjectField(pair.key, pair.value);
+                }
+            }
+
+            IThrowableProxy throwable = event.getThrowableProxy();
+            if (throwable != null) {
+                json.writeStringField("exception", ThrowableProxyUtil.asString(throwable));
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return EMPTY;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.weatherapp;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Samples high-volume log statements. Each statement below WARN, identified by its logger and
+ * message template, may log {@code burstPerSecond} times per second; beyond that only one in
+ * {@code sampleRate} gets through until the next second. WARN and ERROR always pass. As a turbo
+ * filter it runs before an event is created, so a sampled-out call costs two map lookups.
+ * Configured in {@code logback-spring.xml}.
+ */
+public class LogSampler extends TurboFilter {
+
+    // Bounds memory if templates are built dynamically; counting simply starts over
+    private static final int MAX_STATEMENTS = 10_000;
+
+    private final Map<String, Map<String, Window>> windows = new ConcurrentHashMap<>();
+    private final AtomicInteger statements = new AtomicInteger();
+
+    private int burstPerSecond = 50;
+    private int sampleRate = 100;
+
+    public void setBurstPerSecond(int burstPerSecond) {
+        this.burstPerSecond = burstPerSecond;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (!isStarted() || format == null || level == null || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        // Disabled statements must not use up the budget (and isEnabledFor would call back into this filter)
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return window(logger.getName(), format).admit(System.currentTimeMillis() / 1000, burstPerSecond, sampleRate)
+                ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Window window(String loggerName, String format) {
+        Map<String, Window> byFormat = windows.get(loggerName);
+        if (byFormat != null) {
+            Window window = byFormat.get(format);
+            if (window != null) return window;
+        }
+        if (statements.incrementAndGet() > MAX_STATEMENTS) {
+            windows.clear();
+            statements.set(0);
+        }
+        return windows.computeIfAbsent(loggerName, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(format, key -> new Window());
+    }
+
+    // Per-second counter; a racy reset at the second boundary only makes sampling slightly approximate
+    private static final class Window {
+        private volatile long second;
+        private final AtomicInteger count = new AtomicInteger();
+
+        boolean admit(long now, int burst, int sampleRate) {
+            if (second != now) {
+                second = now;
+                count.set(0);
+            }
+            int n = count.incrementAndGet();
+            return n <= burst || (n - burst) % sampleRate == 0;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.weatherapp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Local stand-in for a real delivery channel: writes each notification to the log.
+ */
+@Component
+public class LoggingNotificationSender implements NotificationSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingNotificationSender.class);
+
+    @Override
+    public void send(Notification notification) {
+        log.info("Notification for user {} [{}] {}: {}", notification.getUserId(), notification.getType(),
+                notification.getTitle(), notification.getMessage());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.weatherapp;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * The replay archive has no response for the request. Unlike {@link CityNotFoundException} this
+ * says nothing about the city, so it is never remembered as an unknown name.
+ */
+public class NotRecordedException extends WeatherException {
+
+    public NotRecordedException(String requestKey) {
+        super(HttpStatus.NOT_FOUND, "No recorded response for this request", 0,
+                new IllegalStateException("No recorded response for " + requestKey));
+    }
+}
@@ -0,0 +1,476 @@
+package com.example.weatherapp;
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Turns fresh weather into user alerts and delivers them off the request path.
+ *
+ * <p>{@link WeatherService} hands over conditions as it fetches them; that only offers to a
+ * bounded in-memory queue, so a storm over a popular city never holds up a request. A single
+ * fan-out thread matches each trigger against the users who follow the city (looked up at most
+ * once per {@code followers-ttl-ms} per city), applies per-user throttling and writes the alerts
+ * to the Mongo outbox in batches. The outbox id is the dedupe key, so an alert already written in
+ * the current window, here or on another node, is not written again, and only alerts that were
+ * actually new count against a user's throttle. A poller claims due entries one at a time with {@code findAndModify} and hands them to a
+ * fixed worker pool, never claiming more than the pool can queue; failed sends are retried with
+ * backoff, and entries whose worker died are reclaimed once their lease runs out.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.notifications.enabled", havingValue = "true")
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private static final Set<String> SEVERE_CONDITIONS = Set.of("Thunderstorm", "Tornado", "Squall");
+    private static final long BASE_RETRY_DELAY_MS = 30_000;
+    private static final long MAX_RETRY_DELAY_MS = 30 * 60 * 1000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private NotificationSender sender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${weather.notifications.trigger-queue-capacity:1000}")
+    private int triggerQueueCapacity;
+
+    @Value("${weather.notifications.batch-size:500}")
+    private int batchSize;
+
+    @Value("${weather.notifications.workers:4}")
+    private int workers;
+
+    @Value("${weather.notifications.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${weather.notifications.dedupe-window-minutes:180}")
+    private long dedupeWindowMinutes;
+
+    @Value("${weather.notifications.throttle-window-minutes:60}")
+    private long throttleWindowMinutes;
+
+    @Value("${weather.notifications.max-per-user-per-window:5}")
+    private int maxPerUserPerWindow;
+
+    @Value("${weather.notifications.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${weather.notifications.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${weather.notifications.retention-days:7}")
+    private long retentionDays;
+
+    @Value("${weather.notifications.severe-wind-speed:17.2}")
+    private double severeWindSpeed;
+
+    @Value("${weather.notifications.aqi-threshold:4}")
+    private int aqiThreshold;
+
+    @Value("${weather.notifications.followers-ttl-ms:300000}")
+    private long followersTtlMs;
+
+    @Value("${weather.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private BlockingQueue<Trigger> triggers;
+
+    // Users following each city, so a city's every refresh doesn't re-query them
+    private WeatherCache<List<UserPreferences>> followersByCity;
+
+    // Outbox ids known to be written in their dedupe window; repeats are skipped before they reach the throttle
+    private WeatherCache<Boolean> written;
+
+    // Alerts written per user in the current throttle window; only the fan-out thread touches it
+    private WeatherCache<AtomicInteger> perUser;
+
+    private final Map<String, Counter> outcomes = new ConcurrentHashMap<>();
+
+    private Thread fanOutThread;
+    private ScheduledExecutorService poller;
+    private ThreadPoolExecutor workerPool;
+    private volatile boolean running = true;
+
+    // Only the poller thread touches it
+    private boolean indexesReady;
+
+    @PostConstruct
+    void init() {
+        triggers = new ArrayBlockingQueue<>(triggerQueueCapacity);
+        followersByCity = new WeatherCache<>("notification_followers", followersTtlMs, cacheMaxEntries);
+        written = new WeatherCache<>("notification_written", TimeUnit.MINUTES.toMillis(dedupeWindowMinutes), cacheMaxEntries);
+        perUser = new WeatherCache<>("notification_throttle", TimeUnit.MINUTES.toMillis(throttleWindowMinutes), cacheMaxEntries);
+        Gauge.builder("weather.notifications.triggers", triggers, Collection::size)
+                .description("Weather updates waiting to be matched against user alerts")
+                .register(meterRegistry);
+
+        fanOutThread = daemonThreads("notification-fanout").newThread(this::fanOut);
+        fanOutThread.start();
+        workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize), daemonThreads("notification-worker"));
+        poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("notification-poller"));
+        poller.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // Claimed entries that don't finish in time are picked up again when their lease expires
+        running = false;
+        fanOutThread.interrupt();
+        poller.shutdownNow();
+        workerPool.shutdown();
+        workerPool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues freshly fetched current conditions (canonical units) for alert matching. Never blocks;
+     * if the fan-out thread is that far behind, the update is dropped and counted.
+     */
+    public void onCurrentWeather(Map<String, Object> weather) {
+        offer(new Trigger(weather, null));
+    }
+
+    /**
+     * As {@link #onCurrentWeather}, for an air quality reading at the city's coordinates.
+     */
+    public void onAirQuality(Map<String, Object> weather, Map<String, Object> airQuality) {
+        offer(new Trigger(weather, airQuality));
+    }
+
+    private void offer(Trigger trigger) {
+        if (!triggers.offer(trigger)) {
+            count("dropped", 1);
+        }
+    }
+
+    private void fanOut() {
+        while (running) {
+            try {
+                evaluate(triggers.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Notification fan-out failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void evaluate(Trigger trigger) {
+        long now = System.currentTimeMillis();
+        long window = now / TimeUnit.MINUTES.toMillis(dedupeWindowMinutes);
+        String city = (String) trigger.weather.get("city");
+        List<UserPreferences> followers = followers(city);
+        if (followers.isEmpty()) {
+            return;
+        }
+        List<Alert> alerts = alerts(trigger, followers);
+        if (alerts.isEmpty()) {
+            return;
+        }
+
+        Date createdAt = new Date(now);
+        List<Notification> batch = new ArrayList<>(Math.min(batchSize, followers.size()));
+        // Alerts in the unwritten batch per user, on top of what the throttle has already counted
+        Map<String, Integer> pending = new HashMap<>();
+        for (UserPreferences user : followers) {
+            for (Alert alert : alerts) {
+                if (!alert.wants.test(user)) continue;
+                String id = alert.type + "|" + user.getUserId() + "|" + trigger.weather.get("cityId") + "|" + window;
+                if (written.get(id) != null) continue;
+                if (!withinThrottle(user.getUserId(), pending.getOrDefault(user.getUserId(), 0))) {
+                    count("throttled", 1);
+                    continue;
+                }
+                pending.merge(user.getUserId(), 1, Integer::sum);
+                batch.add(new Notification(id, user.getUserId(), alert.type, city, alert.title, alert.message.apply(user), createdAt));
+                if (batch.size() >= batchSize) {
+                    write(batch);
+                    batch.clear();
+                    pending.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    // Favorites and default city, each user once; only users who want notifications at all
+    private List<UserPreferences> followers(String city) {
+        List<UserPreferences> followers = followersByCity.get(city);
+        if (followers == null) {
+            Map<String, UserPreferences> byId = new LinkedHashMap<>();
+            for (UserPreferences user : userRepository.findByFavoriteLocationsContaining(city)) {
+                byId.putIfAbsent(user.getUserId(), user);
+            }
+            for (UserPreferences user : userRepository.findByDefaultCity(city)) {
+                byId.putIfAbsent(user.getUserId(), user);
+            }
+            followers = new ArrayList<>();
+            for (UserPreferences user : byId.values()) {
+                if (user.isNotifications()) {
+                    followers.add(user);
+                }
+            }
+            followersByCity.put(city, followers);
+        }
+        return followers;
+    }
+
+    private List<Alert> alerts(Trigger trigger, List<UserPreferences> followers) {
+        Map<String, Object> weather = trigger.weather;
+        String city = (String) weather.get("city");
+        List<Alert> alerts = new ArrayList<>();
+
+        if (trigger.airQuality != null) {
+            int aqi = ((Number) trigger.airQuality.get("aqi")).intValue();
+            if (aqi >= aqiThreshold) {
+                String message = "Air quality is " + trigger.airQuality.get("aqiLevel") + ". " + trigger.airQuality.get("healthImpact");
+                alerts.add(new Alert("air_quality", "Poor air quality in " + city,
+                        UserPreferences::isAirQualityAlerts, user -> message));
+            }
+            return alerts;
+        }
+
+        double windSpeed = ((Number) weather.get("windSpeed")).doubleValue();
+        if (SEVERE_CONDITIONS.contains(weather.get("main")) || windSpeed >= severeWindSpeed) {
+            String message = capitalize((String) weather.get("description")) + ", wind " + windSpeed + " m/s";
+            alerts.add(new Alert("weather", "Severe weather in " + city,
+                    UserPreferences::isWeatherAlerts, user -> message));
+        }
+
+        // Thresholds are compared in the user's own unit; only built when some follower is actually past one
+        double celsius = ((Number) weather.get("temperature")).doubleValue();
+        Alert high = new Alert("temperature_high", "High temperature in " + city,
+                user -> user.isTemperatureAlerts() && user.getTemperatureThresholdHigh() != null
+                        && inUserUnit(user, celsius) > user.getTemperatureThresholdHigh(),
+                user -> "It is " + formatTemperature(user, celsius) + ", above your threshold of "
+                        + user.getTemperatureThresholdHigh());
+        Alert low = new Alert("temperature_low", "Low temperature in " + city,
+                user -> user.isTemperatureAlerts() && user.getTemperatureThresholdLow() != null
+                        && inUserUnit(user, celsius) < user.getTemperatureThresholdLow(),
+                user -> "It is " + formatTemperature(user, celsius) + ", below your threshold of "
+                        + user.getTemperatureThresholdLow());
+        for (Alert alert : List.of(high, low)) {
+            if (followers.stream().anyMatch(alert.wants)) {
+                alerts.add(alert);
+            }
+        }
+        return alerts;
+    }
+
+    private boolean withinThrottle(String userId, int pending) {
+        AtomicInteger sent = perUser.peek(userId);
+        return (sent == null ? 0 : sent.get()) + pending < maxPerUserPerWindow;
+    }
+
+    // Counted once the outbox confirms the alert was new
+    private void consumeThrottle(String userId) {
+        AtomicInteger sent = perUser.get(userId);
+        if (sent == null) {
+            sent = new AtomicInteger();
+            perUser.put(userId, sent);
+        }
+        sent.incrementAndGet();
+    }
+
+    // Upserts that only set fields on insert: an id already in the outbox is left exactly as it is
+    private void write(List<Notification> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Notification notification : batch) {
+            bulk.upsert(Query.query(Criteria.where("_id").is(notification.getId())), new Update()
+                    .setOnInsert("userId", notification.getUserId())
+                    .setOnInsert("type", notification.getType())
+                    .setOnInsert("city", notification.getCity())
+                    .setOnInsert("title", notification.getTitle())
+                    .setOnInsert("message", notification.getMessage())
+                    .setOnInsert("status", Notification.PENDING)
+                    .setOnInsert("attempts", 0)
+                    .setOnInsert("createdAt", notification.getCreatedAt())
+                    .setOnInsert("nextAttemptAt", notification.getNextAttemptAt()));
+        }
+        List<BulkWriteUpsert> upserts = bulk.execute().getUpserts();
+        for (BulkWriteUpsert upsert : upserts) {
+            consumeThrottle(batch.get(upsert.getIndex()).getUserId());
+        }
+        // New or not, every id is in the outbox now
+        for (Notification notification : batch) {
+            written.put(notification.getId(), Boolean.TRUE);
+        }
+        count("queued", upserts.size());
+        count("duplicate", batch.size() - upserts.size());
+    }
+
+    // Built by the poller rather than at startup, so the app comes up (and retries) while Mongo is unreachable
+    private void ensureIndexes() {
+        IndexOperations indexes = mongoTemplate.indexOps(Notification.class);
+        indexes.ensureIndex(new Index().on("status", Sort.Direction.ASC).on("nextAttemptAt", Sort.Direction.ASC));
+        // expireAfter(0): each finished entry expires at its own expiresAt
+        indexes.ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+        indexesReady = true;
+    }
+
+    private void drain() {
+        try {
+            if (!indexesReady) {
+                ensureIndexes();
+            }
+            int capacity = workerPool.getQueue().remainingCapacity();
+            for (int i = 0; i < capacity && running; i++) {
+                Notification notification = claim();
+                if (notification == null) {
+                    return;
+                }
+                workerPool.execute(() -> deliver(notification));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Notification outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    private Notification claim() {
+        Date now = new Date();
+        Query due = Query.query(new Criteria().orOperator(
+                        Criteria.where("status").is(Notification.PENDING).and("nextAttemptAt").lte(now),
+                        Criteria.where("status").is(Notification.SENDING).and("claimedAt").lt(new Date(now.getTime() - leaseMs))))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", Notification.SENDING)
+                .set("claimedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), Notification.class);
+    }
+
+    private void deliver(Notification notification) {
+        long now = System.currentTimeMillis();
+        Update outcome;
+        try {
+            sender.send(notification);
+            outcome = new Update()
+                    .set("status", Notification.SENT)
+                    .set("sentAt", new Date(now))
+                    .set("expiresAt", new Date(now + TimeUnit.DAYS.toMillis(retentionDays)));
+            count("sent", 1);
+        } catch (Exception e) {
+            outcome = new Update().set("lastError", String.valueOf(e.getMessage()));
+            if (notification.getAttempts() >= maxAttempts) {
+                log.warn("Giving up on notification {} after {} attempts: {}", notification.getId(), notification.getAttempts(), e.getMessage());
+                outcome.set("status", Notification.FAILED)
+                        .set("expiresAt", new Date(now + TimeUnit.DAYS.toMillis(retentionDays)));
+                count("failed", 1);
+            } else {
+                long delay = Math.min(MAX_RETRY_DELAY_MS, BASE_RETRY_DELAY_MS << Math.min(notification.getAttempts() - 1, 16));
+                outcome.set("status", Notification.PENDING)
+                        .set("nextAttemptAt", new Date(now + delay));
+                count("retried", 1);
+            }
+        }
+
+        try {
+            // Matching on claimedAt keeps a worker whose lease ran out from overwriting a newer claim
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(notification.getId())
+                    .and("claimedAt").is(notification.getClaimedAt())), outcome, Notification.class);
+        } catch (RuntimeException e) {
+            log.warn("Could not record outcome of notification {}: {}", notification.getId(), e.getMessage());
+        }
+    }
+
+    private static double inUserUnit(UserPreferences user, double celsius) {
+        return "fahrenheit".equalsIgnoreCase(user.getTemperatureUnit()) ? UnitConverter.temperature(celsius, "imperial") : celsius;
+    }
+
+    private static String formatTemperature(UserPreferences user, double celsius) {
+        return inUserUnit(user, celsius) + ("fahrenheit".equalsIgnoreCase(user.getTemperatureUnit()) ? "°F" : "°C");
+    }
+
+    private static String capitalize(String text) {
+        return text == null || text.isEmpty() ? "Severe weather" : Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+
+    private void count(String outcome, int amount) {
+        if (amount <= 0) return;
+        outcomes.computeIfAbsent(outcome, key -> Counter.builder("weather.notifications")
+                .description("User notifications by pipeline outcome")
+                .tag("outcome", key)
+                .register(meterRegistry)).increment(amount);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Trigger {
+        final Map<String, Object> weather;
+        final Map<String, Object> airQuality;
+
+        Trigger(Map<String, Object> weather, Map<String, Object> airQuality) {
+            this.weather = weather;
+            this.airQuality = airQuality;
+        }
+    }
+
+    private static final class Alert {
+        final String type;
+        final String title;
+        final Predicate<UserPreferences> wants;
+        final Function<UserPreferences, String> message;
+
+        Alert(String type, String title, Predicate<UserPreferences> wants, Function<UserPreferences, String> message) {
+            this.type = type;
+            this.title = title;
+            this.wants = wants;
+            this.message = message;
+        }
+    }
+}
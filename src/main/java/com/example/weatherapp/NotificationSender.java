@@ -0,0 +1,11 @@
+package com.example.weatherapp;
+
+/**
+ * Delivers one notification to its user (push, e-mail, ...). Called from the notification worker
+ * pool, never from a request thread; throwing marks the attempt as failed and it is retried with
+ * backoff. {@link LoggingNotificationSender} is used unless a {@code @Primary} sender is declared.
+ */
+public interface NotificationSender {
+
+    void send(Notification notification) throws Exception;
+}
@@ -0,0 +1,13 @@
+package com.example.weatherapp;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * OpenWeather refused the call because our plan's allowance is used up.
+ */
+public class QuotaExceededException extends WeatherException {
+
+    public QuotaExceededException(Throwable cause) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Weather provider quota exhausted, please retry later", 60, cause);
+    }
+}
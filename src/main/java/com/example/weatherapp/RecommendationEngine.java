@@ -0,0 +1,196 @@
+package com.example.weatherapp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Activity and clothing suggestions driven by a declarative decision table.
+ *
+ * <p>Readings are reduced to a few bucketed conditions (temperature band, precipitation, wind,
+ * humidity). Every combination of buckets is evaluated against the tables once, when the class
+ * loads, so a lookup is just a bucket computation and an array read returning a shared immutable list.
+ */
+final class RecommendationEngine {
+
+    // Edges of both tables: activities split at < 10 and > 25, clothing at > 0, > 10, > 20 and > 30
+    enum Temperature {
+        FREEZING,   // <= 0
+        COLD,       // (0, 10)
+        CHILLY,     // exactly 10: not cold for activities, still coat weather for clothing
+        COOL,       // (10, 20]
+        WARM,       // (20, 25]
+        HOT,        // (25, 30]
+        SCORCHING;  // > 30
+
+        static Temperature of(double temp) {
+            if (temp <= 0) return FREEZING;
+            if (temp < 10) return COLD;
+            if (temp <= 10) return CHILLY;
+            if (temp <= 20) return COOL;
+            if (temp <= 25) return WARM;
+            if (temp <= 30) return HOT;
+            return SCORCHING;
+        }
+    }
+
+    enum Wind {
+        CALM,    // <= 10
+        BREEZY,  // (10, 15]
+        WINDY;   // > 15
+
+        static Wind of(double speed) {
+            if (speed <= 10) return CALM;
+            if (speed <= 15) return BREEZY;
+            return WINDY;
+        }
+    }
+
+    /**
+     * One bucketed combination of conditions.
+     */
+    static final class Conditions {
+        final Temperature temperature;
+        final boolean wet;
+        final Wind wind;
+        final boolean humid;
+
+        Conditions(Temperature temperature, boolean wet, Wind wind, boolean humid) {
+            this.temperature = temperature;
+            this.wet = wet;
+            this.wind = wind;
+            this.humid = humid;
+        }
+
+        boolean warmerThan(Temperature band) {
+            return temperature.compareTo(band) > 0;
+        }
+
+        boolean colderThan(Temperature band) {
+            return temperature.compareTo(band) < 0;
+        }
+    }
+
+    /**
+     * A row of a decision table. Rows sharing a group are exclusive: only the first match in the
+     * group applies. Rows without a group always apply when they match.
+     */
+    private static final class Rule {
+        final String group;
+        final Predicate<Conditions> when;
+        final List<String> recommend;
+
+        Rule(String group, Predicate<Conditions> when, String... recommend) {
+            this.group = group;
+            this.when = when;
+            this.recommend = List.of(recommend);
+        }
+    }
+
+    private static Rule firstOf(String group, Predicate<Conditions> when, String... recommend) {
+        return new Rule(group, when, recommend);
+    }
+
+    private static Rule also(Predicate<Conditions> when, String... recommend) {
+        return new Rule(null, when, recommend);
+    }
+
+    private static final List<Rule> ACTIVITY_TABLE = List.of(
+            firstOf("outing", c -> c.wet,
+                    "Visit a museum or gallery", "Go to a shopping mall", "Try indoor rock climbing", "Visit a cinema"),
+            firstOf("outing", c -> c.warmerThan(Temperature.WARM),
+                    "Go to the beach or swimming pool", "Have a picnic in the park", "Go for a bike ride", "Outdoor barbecue"),
+            firstOf("outing", c -> c.colderThan(Temperature.CHILLY),
+                    "Visit a cozy café", "Go ice skating", "Museum hopping", "Indoor yoga class"),
+            firstOf("outing", c -> true,
+                    "Go for a walk in the park", "Outdoor photography", "Visit local markets", "Hiking"),
+            also(c -> c.wind != Wind.CALM,
+                    "Go kite flying", "Try windsurfing"));
+
+    private static final List<Rule> CLOTHING_TABLE = List.of(
+            also(c -> c.wet,
+                    "Waterproof jacket or raincoat", "Umbrella", "Waterproof shoes or boots", "Quick-dry clothing"),
+            firstOf("layers", c -> c.temperature == Temperature.SCORCHING,
+                    "Light, breathable fabrics", "Shorts or light pants", "T-shirt or tank top",
+                    "Sun hat and sunglasses", "Sandals or breathable shoes"),
+            firstOf("layers", c -> c.warmerThan(Temperature.COOL),
+                    "Light layers", "Long pants or jeans", "Light sweater or cardigan", "Comfortable walking shoes"),
+            firstOf("layers", c -> c.temperature == Temperature.COOL,
+                    "Medium weight jacket", "Long pants", "Sweater or hoodie", "Closed-toe shoes"),
+            firstOf("layers", c -> c.temperature == Temperature.COLD || c.temperature == Temperature.CHILLY,
+                    "Warm coat or heavy jacket", "Thermal layers", "Warm pants", "Gloves and warm hat", "Insulated boots"),
+            firstOf("layers", c -> true,
+                    "Heavy winter coat", "Multiple thermal layers", "Insulated pants", "Winter gloves and hat",
+                    "Warm winter boots", "Scarf"),
+            also(c -> c.wind == Wind.WINDY,
+                    "Windbreaker or wind-resistant jacket"),
+            also(c -> c.humid,
+                    "Moisture-wicking fabrics", "Breathable materials"));
+
+    private static final List<String>[] ACTIVITIES = precompute(ACTIVITY_TABLE);
+    private static final List<String>[] CLOTHING = precompute(CLOTHING_TABLE);
+
+    List<String> activitiesFor(Map<String, Object> weather) {
+        return ACTIVITIES[key(weather)];
+    }
+
+    List<String> clothingFor(Map<String, Object> weather) {
+        return CLOTHING[key(weather)];
+    }
+
+    List<String> activitiesFor(double temperature, String main, double windSpeed, int humidity) {
+        return ACTIVITIES[key(temperature, main, windSpeed, humidity)];
+    }
+
+    List<String> clothingFor(double temperature, String main, double windSpeed, int humidity) {
+        return CLOTHING[key(temperature, main, windSpeed, humidity)];
+    }
+
+    private static int key(Map<String, Object> weather) {
+        Object humidity = weather.get("humidity");
+        return key(((Number) weather.get("temperature")).doubleValue(),
+                (String) weather.get("main"),
+                ((Number) weather.get("windSpeed")).doubleValue(),
+                humidity != null ? ((Number) humidity).intValue() : 0);
+    }
+
+    private static int key(double temperature, String main, double windSpeed, int humidity) {
+        boolean wet = main != null && main.toLowerCase(Locale.ROOT).contains("rain");
+        return key(Temperature.of(temperature), wet, Wind.of(windSpeed), humidity > 80);
+    }
+
+    private static int key(Temperature temperature, boolean wet, Wind wind, boolean humid) {
+        return ((temperature.ordinal() * Wind.values().length + wind.ordinal()) * 2 + (wet ? 1 : 0)) * 2 + (humid ? 1 : 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] precompute(List<Rule> table) {
+        List<String>[] results = new List[Temperature.values().length * Wind.values().length * 4];
+        for (Temperature temperature : Temperature.values()) {
+            for (Wind wind : Wind.values()) {
+                for (boolean wet : new boolean[]{false, true}) {
+                    for (boolean humid : new boolean[]{false, true}) {
+                        Conditions conditions = new Conditions(temperature, wet, wind, humid);
+                        results[key(temperature, wet, wind, humid)] = evaluate(table, conditions);
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private static List<String> evaluate(List<Rule> table, Conditions conditions) {
+        List<String> recommendations = new ArrayList<>();
+        List<String> matchedGroups = new ArrayList<>();
+        for (Rule rule : table) {
+            if (rule.group != null && matchedGroups.contains(rule.group)) continue;
+            if (!rule.when.test(conditions)) continue;
+            if (rule.group != null) matchedGroups.add(rule.group);
+            recommendations.addAll(rule.recommend);
+        }
+        return Collections.unmodifiableList(recommendations);
+    }
+}
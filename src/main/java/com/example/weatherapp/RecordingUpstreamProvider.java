@@ -0,0 +1,73 @@
+package com.example.weatherapp;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calls OpenWeather through {@link UpstreamClient} and keeps every successful response, keyed by
+ * {@link UpstreamRequestKey}. The archive is written on graceful shutdown; an existing archive at
+ * the same path is extended rather than replaced, with newer responses winning.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "openweather.provider", havingValue = "record")
+public class RecordingUpstreamProvider implements UpstreamProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordingUpstreamProvider.class);
+
+    @Autowired
+    private UpstreamClient upstreamClient;
+
+    @Value("${openweather.archive.path:data/upstream-archive.owa}")
+    private String path;
+
+    private final Map<String, String> recorded = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadExisting() {
+        Path archivePath = Paths.get(path);
+        if (!Files.exists(archivePath)) {
+            return;
+        }
+        try (UpstreamArchive archive = UpstreamArchive.open(archivePath)) {
+            recorded.putAll(archive.readAll());
+            log.info("Extending upstream archive {} with {} existing responses", archivePath, archive.size());
+        } catch (IOException e) {
+            log.warn("Could not read existing upstream archive {}, starting a new one: {}", archivePath, e.getMessage());
+        }
+    }
+
+    @Override
+    public String get(String endpoint, String url) {
+        String response = upstreamClient.get(endpoint, url);
+        if (response != null) {
+            recorded.put(UpstreamRequestKey.of(url), response);
+        }
+        return response;
+    }
+
+    @PreDestroy
+    public void save() {
+        Path archivePath = Paths.get(path);
+        try {
+            UpstreamArchive.write(archivePath, recorded);
+            log.info("Recorded {} upstream responses to {}", recorded.size(), archivePath);
+        } catch (IOException e) {
+            log.warn("Could not write upstream archive {}: {}", archivePath, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.weatherapp;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Serves upstream responses from a recorded archive without touching the network. Requests that
+ * were never recorded fail with {@link NotRecordedException} (404, not cached as an unknown city),
+ * so replayed runs are deterministic. No quota is consumed.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(name = "openweather.provider", havingValue = "replay")
+public class ReplayUpstreamProvider implements UpstreamProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayUpstreamProvider.class);
+
+    @Value("${openweather.archive.path:data/upstream-archive.owa}")
+    private String path;
+
+    private UpstreamArchive archive;
+
+    @PostConstruct
+    void open() throws IOException {
+        archive = UpstreamArchive.open(Paths.get(path));
+        log.info("Replaying {} upstream responses from {}", archive.size(), path);
+    }
+
+    @Override
+    public String get(String endpoint, String url) {
+        String requestKey = UpstreamRequestKey.of(url);
+        String response = archive.get(requestKey);
+        if (response == null) {
+            throw new NotRecordedException(requestKey);
+        }
+        return response;
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        archive.close();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.weatherapp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-request span recorder. {@link ServerTimingFilter} opens one for each {@code /api} request on
+ * the request thread; code along the request path wraps interesting sections in {@link #span(String)}.
+ * Spans with the same name are summed. Outside a tracked request, spans are no-ops.
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, long[]> spans = new LinkedHashMap<>();
+    private long handlerDoneNanos;
+    private long endNanos;
+
+    private RequestTiming() {}
+
+    static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a span on the current request, to be closed with try-with-resources.
+     */
+    public static Span span(String name) {
+        RequestTiming timing = CURRENT.get();
+        return timing == null ? Span.NOOP : new Span(timing, name);
+    }
+
+    /**
+     * Marks the point where the controller returned and response serialization begins.
+     */
+    void markHandlerDone() {
+        if (handlerDoneNanos == 0) {
+            handlerDoneNanos = System.nanoTime();
+        }
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        if (handlerDoneNanos != 0) {
+            add("serialize", endNanos - handlerDoneNanos);
+        }
+    }
+
+    double totalMillis() {
+        return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1e6;
+    }
+
+    Map<String, Double> spanMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        spans.forEach((name, totals) -> millis.put(name, totals[0] / 1e6));
+        return millis;
+    }
+
+    /**
+     * Formats the spans as a Server-Timing header value, e.g.
+     * {@code geocode;dur=41.2, upstream.air_pollution;dur=88.0, total;dur=131.7}. Before
+     * {@link #finish()}, the total runs up to now.
+     */
+    String toServerTimingHeader() {
+        StringBuilder header = new StringBuilder();
+        spans.forEach((name, totals) -> {
+            header.append(name);
+            if (totals[1] > 1) {
+                header.append(";desc=\"x").append(totals[1]).append('"');
+            }
+            header.append(";dur=").append(formatMillis(totals[0])).append(", ");
+        });
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return header.append("total;dur=").append(formatMillis(end - startNanos)).toString();
+    }
+
+    private void add(String name, long nanos) {
+        long[] totals = spans.computeIfAbsent(name, k -> new long[2]);
+        totals[0] += nanos;
+        totals[1]++;
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.valueOf(Math.round(nanos / 1e4) / 100.0);
+    }
+
+    public static final class Span implements AutoCloseable {
+
+        static final Span NOOP = new Span(null, null);
+
+        private final RequestTiming timing;
+        private final String name;
+        private final long start;
+
+        private Span(RequestTiming timing, String name) {
+            this.timing = timing;
+            this.name = name;
+            this.start = timing == null ? 0 : System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (timing != null) {
+                timing.add(name, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.weatherapp;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logback appender that only enqueues on the calling thread; a background thread passes events
+ * on to the attached appenders (console, JSON file), which is where formatting and I/O happen.
+ *
+ * <p>The buffer holds {@code capacity} events. {@code overflowPolicy} decides what a full buffer
+ * does: {@code DROP_NEWEST} (the default) discards the incoming event, {@code DROP_OLDEST}
+ * overwrites the oldest queued one, and {@code BLOCK} makes the caller wait, which is only meant
+ * for debugging. Dropped events are counted and reported in a WARN line once the buffer drains.
+ * Configured in {@code logback-spring.xml}.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    public enum OverflowPolicy { DROP_NEWEST, DROP_OLDEST, BLOCK }
+
+    private static final int DISPATCH_BATCH = 256;
+    private static final long POLL_INTERVAL_MS = 100;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private int capacity = 8192;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    private long shutdownTimeoutMs = 2000;
+
+    private BlockingQueue<ILoggingEvent> buffer;
+    private Thread worker;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public void setShutdownTimeoutMs(long shutdownTimeoutMs) {
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) return;
+        if (capacity < 1) {
+            addError("capacity must be positive");
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(capacity);
+        super.start();
+        worker = new Thread(this::dispatchLoop, "log-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) return;
+        super.stop();
+        // The worker notices within a poll interval; interrupting it could break an appender mid-write
+        try {
+            worker.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ILoggingEvent event;
+        while ((event = buffer.poll()) != null) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        reportDropped();
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Freezes the message, MDC and thread name while still on the caller's thread
+        event.prepareForDeferredProcessing();
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                while (!buffer.offer(event)) {
+                    if (buffer.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                try {
+                    buffer.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+                break;
+            default:
+                if (!buffer.offer(event)) {
+                    dropped.incrementAndGet();
+                }
+        }
+    }
+
+    private void dispatchLoop() {
+        List<ILoggingEvent> batch = new ArrayList<>(DISPATCH_BATCH);
+        while (isStarted()) {
+            try {
+                ILoggingEvent first = buffer.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            buffer.drainTo(batch, DISPATCH_BATCH - 1);
+            for (ILoggingEvent event : batch) {
+                appenders.appendLoopOnAppenders(event);
+            }
+            batch.clear();
+            if (buffer.isEmpty()) {
+                reportDropped();
+            }
+        }
+    }
+
+    private void reportDropped() {
+        long count = dropped.getAndSet(0);
+        if (count == 0) return;
+        LoggerContext loggerContext = (LoggerContext) getContext();
+        LoggingEvent notice = new LoggingEvent(RingBufferAppender.class.getName(),
+                loggerContext.getLogger(RingBufferAppender.class), Level.WARN,
+                "Log buffer was full; dropped {} events", null, new Object[]{count});
+        appenders.appendLoopOnAppenders(notice);
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.weatherapp;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tracks spans for each {@code /api} request and reports them as a {@code Server-Timing} header,
+ * so browser devtools show where the time went. The header is added as the body starts, so it
+ * covers the request up to that point and the body is never buffered. Requests slower than the configured threshold are
+ * also written, sampled, to the {@code com.example.weatherapp.trace} logger with their spans as fields.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger traceLog = LoggerFactory.getLogger("com.example.weatherapp.trace");
+
+    @Value("${weather.timing.server-timing.enabled:true}")
+    private boolean headerEnabled;
+
+    @Value("${weather.timing.allow-origin:*}")
+    private String timingAllowOrigin;
+
+    @Value("${weather.timing.slow-request-threshold-ms:1000}")
+    private long slowRequestThresholdMs;
+
+    @Value("${weather.timing.slow-request-sample-rate:1.0}")
+    private double slowRequestSampleRate;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        TimingHeaderResponse timed = headerEnabled ? new TimingHeaderResponse(response, timing, timingAllowOrigin) : null;
+        try {
+            chain.doFilter(request, timed != null ? timed : response);
+        } finally {
+            timing.finish();
+            RequestTiming.clear();
+            if (timed != null) {
+                // Responses that never opened a body, e.g. a bare status
+                timed.addTimingHeaders();
+            }
+            if (timing.totalMillis() >= slowRequestThresholdMs
+                    && ThreadLocalRandom.current().nextDouble() < slowRequestSampleRate) {
+                logSlowRequest(request, response, timing);
+            }
+        }
+    }
+
+    /**
+     * Adds the timing headers just before the first byte of the body, while they can still be set.
+     * The body itself goes straight through, so spans after that point (serialization of the body
+     * being written) only reach the slow request log.
+     */
+    private static final class TimingHeaderResponse extends HttpServletResponseWrapper {
+
+        private final RequestTiming timing;
+        private final String allowOrigin;
+        private boolean added;
+
+        TimingHeaderResponse(HttpServletResponse response, RequestTiming timing, String allowOrigin) {
+            super(response);
+            this.timing = timing;
+            this.allowOrigin = allowOrigin;
+        }
+
+        void addTimingHeaders() {
+            if (added || isCommitted()) {
+                return;
+            }
+            added = true;
+            setHeader("Server-Timing", timing.toServerTimingHeader());
+            setHeader("Timing-Allow-Origin", allowOrigin);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addTimingHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeaders();
+            super.sendError(sc);
+        }
+    }
+
+    // Fields go out as key-value pairs, so they are separate fields in the JSON log
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+        double totalMs = Math.round(timing.totalMillis() * 100) / 100.0;
+        traceLog.atInfo()
+                .addKeyValue("event", "slow_request")
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", request.getRequestURI())
+                .addKeyValue("query", request.getQueryString())
+                .addKeyValue("status", response.getStatus())
+                .addKeyValue("totalMs", totalMs)
+                .addKeyValue("spansMs", timing.spanMillis())
+                .log("slow_request {} {} {}ms", request.getMethod(), request.getRequestURI(), totalMs);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.weatherapp;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second cache tier shared by all instances behind the load balancer. {@link WeatherService}
+ * consults it after its in-process caches miss and before calling OpenWeather, so each city is
+ * fetched upstream once per TTL for the whole fleet rather than once per node.
+ *
+ * <p>Entries hold the raw upstream body, keyed by the request path without the API key. Writes run
+ * on the async executor and never hold up a response; read failures are treated as misses. A hit
+ * comes back with its {@code expiresAt}, which the in-process copy keeps, so a body is never
+ * served for longer than its shared TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.cache.l2.enabled", havingValue = "true")
+public class SharedWeatherCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedWeatherCache.class);
+
+    @Autowired
+    private CachedUpstreamResponseRepository repository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${weather.cache.l2.ttl-minutes.weather:10}")
+    private long weatherTtlMinutes;
+
+    @Value("${weather.cache.l2.ttl-minutes.forecast:30}")
+    private long forecastTtlMinutes;
+
+    @Value("${weather.cache.l2.ttl-minutes.air-pollution:60}")
+    private long airPollutionTtlMinutes;
+
+    @Value("${weather.cache.l2.ttl-minutes.air-pollution-forecast:60}")
+    private long airPollutionForecastTtlMinutes;
+
+    @Value("${weather.cache.l2.ttl-minutes.geo:1440}")
+    private long geoTtlMinutes;
+
+    @Value("${weather.cache.l2.ttl-minutes.historical:10080}")
+    private long historicalTtlMinutes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        // expireAfter(0): each document expires at its own expiresAt
+        mongoTemplate.indexOps(CachedUpstreamResponse.class)
+                .ensureIndex(new Index().on("expiresAt", Sort.Direction.ASC).expire(0, TimeUnit.SECONDS));
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", "l2").tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", "l2").tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum)
+                .tag("cache", "l2").register(meterRegistry);
+        FunctionCounter.builder("weather.cache.l2.errors", errors, LongAdder::sum)
+                .description("Failed reads and writes against the shared cache").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached upstream response, or null on a miss.
+     */
+    public CachedUpstreamResponse get(String key) {
+        try (RequestTiming.Span span = RequestTiming.span("l2")) {
+            Optional<CachedUpstreamResponse> cached = repository.findById(key);
+            // The TTL monitor only runs once a minute, so check expiry ourselves as well
+            if (cached.isPresent() && !cached.get().isExpired()) {
+                hits.increment();
+                return cached.get();
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Shared cache read failed for {}: {}", key, e.getMessage());
+        }
+        misses.increment();
+        return null;
+    }
+
+    @Async
+    public void putAsync(String key, String endpoint, String body) {
+        long ttlMinutes = ttlMinutes(endpoint);
+        if (ttlMinutes <= 0) return;
+        long now = System.currentTimeMillis();
+        try {
+            repository.save(new CachedUpstreamResponse(key, endpoint, body,
+                    new Date(now), new Date(now + TimeUnit.MINUTES.toMillis(ttlMinutes))));
+            puts.increment();
+        } catch (RuntimeException e) {
+            errors.increment();
+            log.warn("Shared cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private long ttlMinutes(String endpoint) {
+        switch (endpoint) {
+            case "weather":
+                return weatherTtlMinutes;
+            case "forecast":
+                return forecastTtlMinutes;
+            case "air_pollution":
+                return airPollutionTtlMinutes;
+            case "air_pollution_forecast":
+                return airPollutionForecastTtlMinutes;
+            case "geo_direct":
+                return geoTtlMinutes;
+            case "onecall_timemachine":
+                return historicalTtlMinutes;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.weatherapp;
+
+/**
+ * Sun position, sunrise/sunset and UV index computed locally from coordinates and time, using
+ * NOAA's low-precision solar equations (accurate to about a minute for sunrise and sunset).
+ * Everything works on primitives, so it is cheap enough to call on every request.
+ *
+ * <p>Clear-sky UV follows the empirical {@code 12.5 * cos(zenith)^2.42} fit for a typical ozone
+ * column; cloud cover then scales it by the Kasten-Czeplak cloud modification factor.
+ */
+final class SolarModel {
+
+    /** Returned by {@link #sunrise} and {@link #sunset} when the sun does not cross the horizon that day. */
+    static final long NO_EVENT = Long.MIN_VALUE;
+
+    private static final double SECONDS_PER_DAY = 86_400;
+    // Days from the Unix epoch to 2000-01-01T12:00Z, and the mean length of the tropical year
+    private static final double J2000_EPOCH_DAYS = 10_957.5;
+    private static final double TROPICAL_YEAR_DAYS = 365.2422;
+    // Refraction and the sun's radius put sunrise at a geometric zenith of 90.833 degrees
+    private static final double SUNRISE_ZENITH_COS = Math.cos(Math.toRadians(90.833));
+
+    private SolarModel() {
+    }
+
+    /**
+     * Solar elevation above the horizon in degrees; negative at night.
+     */
+    static double elevation(double lat, double lon, long epochSecond) {
+        double gamma = fractionalYear(epochSecond);
+        double declination = declination(gamma);
+        double utcMinutes = Math.floorMod(epochSecond, (long) SECONDS_PER_DAY) / 60.0;
+        double trueSolarMinutes = utcMinutes + equationOfTimeMinutes(gamma) + 4 * lon;
+        double hourAngle = Math.toRadians(trueSolarMinutes / 4 - 180);
+
+        double latRad = Math.toRadians(lat);
+        double cosZenith = Math.sin(latRad) * Math.sin(declination)
+                + Math.cos(latRad) * Math.cos(declination) * Math.cos(hourAngle);
+        return 90 - Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, cosZenith))));
+    }
+
+    /**
+     * Epoch second of solar noon at the given longitude on the given UTC calendar day.
+     */
+    static long solarNoon(double lon, long epochDay) {
+        double gamma = fractionalYear(epochDay * (long) SECONDS_PER_DAY + (long) SECONDS_PER_DAY / 2);
+        double minutes = 720 - 4 * lon - equationOfTimeMinutes(gamma);
+        return epochDay * (long) SECONDS_PER_DAY + Math.round(minutes * 60);
+    }
+
+    static long sunrise(double lat, double lon, long epochDay) {
+        return horizonCrossing(lat, lon, epochDay, -1);
+    }
+
+    static long sunset(double lat, double lon, long epochDay) {
+        return horizonCrossing(lat, lon, epochDay, 1);
+    }
+
+    /**
+     * UV index under a cloudless sky at the given solar elevation.
+     */
+    static double clearSkyUvIndex(double elevationDegrees) {
+        if (elevationDegrees <= 0) {
+            return 0;
+        }
+        return 12.5 * Math.pow(Math.sin(Math.toRadians(elevationDegrees)), 2.42);
+    }
+
+    /**
+     * UV index at the given solar elevation and cloud cover (0-100 %).
+     */
+    static double uvIndex(double elevationDegrees, double cloudCoverPercent) {
+        double cloudFraction = Math.max(0, Math.min(1, cloudCoverPercent / 100));
+        return clearSkyUvIndex(elevationDegrees) * (1 - 0.75 * Math.pow(cloudFraction, 3.4));
+    }
+
+    // Sunrise (direction -1) or sunset (+1) around the day's solar noon
+    private static long horizonCrossing(double lat, double lon, long epochDay, int direction) {
+        long noon = solarNoon(lon, epochDay);
+        double declination = declination(fractionalYear(noon));
+        double latRad = Math.toRadians(lat);
+        double cosHourAngle = SUNRISE_ZENITH_COS / (Math.cos(latRad) * Math.cos(declination))
+                - Math.tan(latRad) * Math.tan(declination);
+        if (cosHourAngle > 1 || cosHourAngle < -1) {
+            return NO_EVENT; // polar night or midnight sun
+        }
+        double hourAngleDegrees = Math.toDegrees(Math.acos(cosHourAngle));
+        return noon + direction * Math.round(hourAngleDegrees * 4 * 60);
+    }
+
+    // Position in the year as an angle; measured in tropical years from J2000, so no calendar is needed
+    private static double fractionalYear(long epochSecond) {
+        double days = epochSecond / SECONDS_PER_DAY - J2000_EPOCH_DAYS;
+        return 2 * Math.PI * (days / TROPICAL_YEAR_DAYS - Math.floor(days / TROPICAL_YEAR_DAYS));
+    }
+
+    private static double declination(double gamma) {
+        return 0.006918 - 0.399912 * Math.cos(gamma) + 0.070257 * Math.sin(gamma)
+                - 0.006758 * Math.cos(2 * gamma) + 0.000907 * Math.sin(2 * gamma)
+                - 0.002697 * Math.cos(3 * gamma) + 0.00148 * Math.sin(3 * gamma);
+    }
+
+    private static double equationOfTimeMinutes(double gamma) {
+        return 229.18 * (0.000075 + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+                - 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma));
+    }
+}
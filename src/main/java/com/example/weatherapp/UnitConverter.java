@@ -0,0 +1,76 @@
+package com.example.weatherapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts weather maps from the canonical metric units we fetch and cache in to whatever the
+ * caller asked for, using OpenWeather's own unit systems: metric (°C, m/s), imperial (°F, mph)
+ * and standard (K, m/s). Visibility is reported in metres by OpenWeather in every system, so
+ * it passes through unchanged.
+ */
+final class UnitConverter {
+
+    static final String CANONICAL = "metric";
+
+    private static final Set<String> TEMPERATURE_FIELDS = Set.of("temperature", "feelsLike", "minTemp", "maxTemp", "meanTemp");
+    private static final Set<String> WIND_FIELDS = Set.of("windSpeed", "maxWindSpeed");
+
+    private static final double MPH_PER_METRE_PER_SECOND = 2.236936;
+
+    private UnitConverter() {
+    }
+
+    static boolean isCanonical(String units) {
+        return !"imperial".equalsIgnoreCase(units) && !"standard".equalsIgnoreCase(units);
+    }
+
+    /**
+     * Returns the map in the requested units. Metric maps are returned as-is, so shared cached
+     * instances are never copied for the common case.
+     */
+    static Map<String, Object> convert(Map<String, Object> metric, String units) {
+        if (isCanonical(units)) {
+            return metric;
+        }
+        Map<String, Object> converted = new HashMap<>(metric);
+        for (Map.Entry<String, Object> entry : converted.entrySet()) {
+            if (!(entry.getValue() instanceof Number)) continue;
+            double value = ((Number) entry.getValue()).doubleValue();
+            if (TEMPERATURE_FIELDS.contains(entry.getKey())) {
+                entry.setValue(temperature(value, units));
+            } else if (WIND_FIELDS.contains(entry.getKey())) {
+                entry.setValue(windSpeed(value, units));
+            }
+        }
+        return converted;
+    }
+
+    static double temperature(double celsius, String units) {
+        if ("imperial".equalsIgnoreCase(units)) return round(celsius * 9.0 / 5.0 + 32);
+        if ("standard".equalsIgnoreCase(units)) return round(celsius + 273.15);
+        return celsius;
+    }
+
+    static double windSpeed(double metresPerSecond, String units) {
+        return "imperial".equalsIgnoreCase(units) ? round(metresPerSecond * MPH_PER_METRE_PER_SECOND) : metresPerSecond;
+    }
+
+    static List<Map<String, Object>> convertAll(List<Map<String, Object>> metric, String units) {
+        if (isCanonical(units)) {
+            return metric;
+        }
+        List<Map<String, Object>> converted = new ArrayList<>(metric.size());
+        for (Map<String, Object> item : metric) {
+            converted.add(convert(item, units));
+        }
+        return converted;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.weatherapp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only, memory-mapped archive of recorded upstream responses.
+ *
+ * <p>Layout: a 16 byte header (magic, entry count, index offset), then each entry's key and body
+ * as UTF-8 back to back, then an index of fixed 24 byte slots (key hash, data offset, key length,
+ * body length) sorted by hash. A lookup is a binary search over the mapped index and an in-place
+ * key comparison; only the matched body is copied out, when it is decoded. Archives are limited
+ * to 2 GB, the size of a single mapping.
+ */
+final class UpstreamArchive implements Closeable {
+
+    private static final int MAGIC = 0x4F574131; // "OWA1"
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+
+    private UpstreamArchive(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an upstream archive");
+        }
+        this.count = buffer.getInt(4);
+        this.indexOffset = (int) buffer.getLong(8);
+        if (indexOffset < HEADER_BYTES || (long) indexOffset + (long) count * SLOT_BYTES > buffer.capacity()) {
+            throw new IOException("Truncated upstream archive");
+        }
+    }
+
+    static UpstreamArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new UpstreamArchive(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * The recorded body for a normalized request key, or null if it was never recorded.
+     */
+    String get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+
+        // Lower bound of the hash, then walk the (rare) run of equal hashes
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(slotHash(mid), hash) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int slot = low; slot < count && slotHash(slot) == hash; slot++) {
+            int base = indexOffset + slot * SLOT_BYTES;
+            int offset = (int) buffer.getLong(base + 8);
+            int keyLength = buffer.getInt(base + 16);
+            if (keyLength == keyBytes.length && keyMatches(offset, keyBytes)) {
+                byte[] body = new byte[buffer.getInt(base + 20)];
+                buffer.get(offset + keyLength, body);
+                return new String(body, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every entry, in index order. Used to extend an existing archive when recording.
+     */
+    Map<String, String> readAll() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int slot = 0; slot < count; slot++) {
+            int base = indexOffset + slot * SLOT_BYTES;
+            int offset = (int) buffer.getLong(base + 8);
+            byte[] key = new byte[buffer.getInt(base + 16)];
+            byte[] body = new byte[buffer.getInt(base + 20)];
+            buffer.get(offset, key);
+            buffer.get(offset + key.length, body);
+            entries.put(new String(key, StandardCharsets.UTF_8), new String(body, StandardCharsets.UTF_8));
+        }
+        return entries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Writes the entries as a new archive, replacing {@code target} atomically.
+     */
+    static void write(Path target, Map<String, String> entries) throws IOException {
+        List<byte[][]> records = new ArrayList<>(entries.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            records.add(new byte[][]{
+                    entry.getKey().getBytes(StandardCharsets.UTF_8),
+                    entry.getValue().getBytes(StandardCharsets.UTF_8)});
+        }
+        records.sort((a, b) -> Long.compareUnsigned(hash(a[0]), hash(b[0])));
+
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "upstream-archive", ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer index = ByteBuffer.allocate(records.size() * SLOT_BYTES);
+            long position = HEADER_BYTES;
+            out.position(position);
+            for (byte[][] record : records) {
+                index.putLong(hash(record[0])).putLong(position).putInt(record[0].length).putInt(record[1].length);
+                position += writeFully(out, ByteBuffer.wrap(record[0]));
+                position += writeFully(out, ByteBuffer.wrap(record[1]));
+            }
+            if (position + index.capacity() > Integer.MAX_VALUE) {
+                throw new IOException("Upstream archive would exceed 2 GB");
+            }
+            index.flip();
+            writeFully(out, index);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(records.size()).putLong(position);
+            header.flip();
+            out.position(0);
+            writeFully(out, header);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int writeFully(FileChannel out, ByteBuffer bytes) throws IOException {
+        int written = bytes.remaining();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        return written;
+    }
+
+    private long slotHash(int slot) {
+        return buffer.getLong(indexOffset + slot * SLOT_BYTES);
+    }
+
+    private boolean keyMatches(int offset, byte[] key) {
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.weatherapp;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Issues GETs against OpenWeather with hedging and retries.
+ *
+ * <p>If an attempt has not answered by the endpoint's recent latency percentile, a second
+ * identical request is sent and whichever succeeds first wins. Transient failures (5xx,
+ * connection errors and timeouts) are retried with jittered exponential backoff. Hedges and
+ * retries are extra upstream calls, so both are skipped once the quota window is used up.
+ */
+@Component
+public class UpstreamClient implements UpstreamProvider {
+
+    private final RestTemplate restTemplate;
+    private final WeatherMetrics metrics;
+    private final UpstreamQuota quota;
+
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final long hedgeMinDelayMs;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(daemonThreads());
+
+    public UpstreamClient(WeatherMetrics metrics,
+                          UpstreamQuota quota,
+                          @Value("${openweather.timeout.connect-ms:2000}") int connectTimeoutMs,
+                          @Value("${openweather.timeout.read-ms:10000}") int readTimeoutMs,
+                          @Value("${openweather.hedge.enabled:true}") boolean hedgeEnabled,
+                          @Value("${openweather.hedge.percentile:95}") double hedgePercentile,
+                          @Value("${openweather.hedge.min-delay-ms:50}") long hedgeMinDelayMs,
+                          @Value("${openweather.retry.max-attempts:3}") int maxAttempts,
+                          @Value("${openweather.retry.base-backoff-ms:100}") long baseBackoffMs,
+                          @Value("${openweather.retry.max-backoff-ms:2000}") long maxBackoffMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.metrics = metrics;
+        this.quota = quota;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeMinDelayMs = hedgeMinDelayMs;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Override
+    public String get(String endpoint, String url) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return hedged(endpoint, url);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isTransient(e) || !quota.hasHeadroom()) {
+                    throw e;
+                }
+                metrics.retry(endpoint);
+                sleep(backoffMs(attempt));
+            }
+        }
+    }
+
+    private String hedged(String endpoint, String url) {
+        CompletableFuture<String> primary = attempt(endpoint, url);
+        if (!hedgeEnabled) {
+            return await(primary);
+        }
+
+        try {
+            return primary.get(hedgeDelayMs(endpoint), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Straggler: fall through and race a second request against it
+        } catch (ExecutionException e) {
+            return await(primary);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for OpenWeather");
+        }
+        if (!quota.hasHeadroom()) {
+            return await(primary);
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        race(endpoint, "primary", primary, result, failures);
+        race(endpoint, "hedge", attempt(endpoint, url), result, failures);
+        return await(result);
+    }
+
+    // Completes the result with the first success, or with the last failure once both attempts fail
+    private void race(String endpoint, String name, CompletableFuture<String> attempt,
+                      CompletableFuture<String> result, AtomicInteger failures) {
+        attempt.whenComplete((response, error) -> {
+            if (error == null) {
+                if (result.complete(response)) {
+                    metrics.hedge(endpoint, name);
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private CompletableFuture<String> attempt(String endpoint, String url) {
+        quota.record();
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            String response = metrics.timeUpstream(endpoint, () -> restTemplate.getForObject(url, String.class));
+            latency(endpoint).add(System.nanoTime() - start);
+            return response;
+        }, executor);
+    }
+
+    private static String await(CompletableFuture<String> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while waiting for OpenWeather");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        if (e instanceof HttpServerErrorException) {
+            return ((HttpServerErrorException) e).getStatusCode().value() != 501;
+        }
+        return e instanceof ResourceAccessException;
+    }
+
+    // Full jitter: uniformly random up to the exponential step, so retrying clients spread out
+    private long backoffMs(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted while backing off from OpenWeather");
+        }
+    }
+
+    private long hedgeDelayMs(String endpoint) {
+        return Math.max(hedgeMinDelayMs, latency(endpoint).percentileMillis());
+    }
+
+    private LatencyWindow latency(String endpoint) {
+        return latencies.computeIfAbsent(endpoint, key -> new LatencyWindow(hedgePercentile));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "openweather-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The most recent successful latencies for one endpoint. The percentile is recomputed every
+     * few samples rather than on every call.
+     */
+    private static final class LatencyWindow {
+        private static final int SIZE = 256;
+        private static final int RECOMPUTE_EVERY = 16;
+        private static final int MIN_SAMPLES = 20;
+
+        private final double percentile;
+        private final long[] samples = new long[SIZE];
+        private int count;
+        private int next;
+        private int sinceRecompute = RECOMPUTE_EVERY;
+        private long cachedMillis;
+
+        LatencyWindow(double percentile) {
+            this.percentile = percentile;
+        }
+
+        synchronized void add(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % SIZE;
+            if (count < SIZE) count++;
+            sinceRecompute++;
+        }
+
+        // Until there is enough history the deadline is effectively infinite, so nothing is hedged
+        synchronized long percentileMillis() {
+            if (count < MIN_SAMPLES) {
+                return Long.MAX_VALUE;
+            }
+            if (sinceRecompute >= RECOMPUTE_EVERY) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+                cachedMillis = TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(count - 1, index))]);
+                sinceRecompute = 0;
+            }
+            return cachedMillis;
+        }
+    }
+}
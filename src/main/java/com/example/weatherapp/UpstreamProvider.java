@@ -0,0 +1,15 @@
+package com.example.weatherapp;
+
+/**
+ * Source of raw OpenWeather responses for {@link WeatherService}. The live implementation is
+ * {@link UpstreamClient}; {@code openweather.provider=record} or {@code replay} swaps in the
+ * archive-backed providers for benchmarking and offline development.
+ */
+public interface UpstreamProvider {
+
+    /**
+     * Returns the response body for a GET of {@code url}. {@code endpoint} is the short name
+     * used for metrics, e.g. {@code weather} or {@code forecast}.
+     */
+    String get(String endpoint, String url);
+}
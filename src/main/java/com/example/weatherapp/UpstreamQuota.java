@@ -0,0 +1,101 @@
+package com.example.weatherapp;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks OpenWeather calls against the plan's per-minute and per-day allowance.
+ * Windows are fixed (calendar minute / UTC day), which is how OpenWeather counts them.
+ */
+@Component
+public class UpstreamQuota {
+
+    private final Window minute;
+    private final Window day;
+
+    public UpstreamQuota(MeterRegistry registry,
+                         @Value("${openweather.quota.per-minute:60}") long perMinute,
+                         @Value("${openweather.quota.per-day:1000000}") long perDay) {
+        this.minute = new Window(60_000L, perMinute);
+        this.day = new Window(86_400_000L, perDay);
+
+        minute.register(registry, "minute");
+        day.register(registry, "day");
+    }
+
+    /**
+     * Counts one upstream call.
+     */
+    public void record() {
+        long now = System.currentTimeMillis();
+        minute.add(now);
+        day.add(now);
+    }
+
+    /**
+     * Whether an optional extra call (a hedge or a retry) still fits in both windows.
+     */
+    public boolean hasHeadroom() {
+        long now = System.currentTimeMillis();
+        return minute.used(now) < minute.limit && day.used(now) < day.limit;
+    }
+
+    /**
+     * Calls left before either window is used up.
+     */
+    public long remaining() {
+        long now = System.currentTimeMillis();
+        return Math.max(0, Math.min(minute.limit - minute.used(now), day.limit - day.used(now)));
+    }
+
+    public long usedThisMinute() {
+        return minute.used(System.currentTimeMillis());
+    }
+
+    public long usedToday() {
+        return day.used(System.currentTimeMillis());
+    }
+
+    private static class Window {
+        final long lengthMs;
+        final long limit;
+        long start;
+        long count;
+
+        Window(long lengthMs, long limit) {
+            this.lengthMs = lengthMs;
+            this.limit = limit;
+        }
+
+        synchronized void add(long now) {
+            roll(now);
+            count++;
+        }
+
+        synchronized long used(long now) {
+            roll(now);
+            return count;
+        }
+
+        private void roll(long now) {
+            long currentStart = now - (now % lengthMs);
+            if (currentStart != start) {
+                start = currentStart;
+                count = 0;
+            }
+        }
+
+        void register(MeterRegistry registry, String window) {
+            Gauge.builder("weather.upstream.quota.used", this, w -> w.used(System.currentTimeMillis()))
+                    .tag("window", window)
+                    .description("OpenWeather calls made in the current quota window")
+                    .register(registry);
+            Gauge.builder("weather.upstream.quota.limit", this, w -> w.limit)
+                    .tag("window", window)
+                    .description("OpenWeather calls allowed per quota window")
+                    .register(registry);
+        }
+    }
+}
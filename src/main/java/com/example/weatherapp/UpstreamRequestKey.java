@@ -0,0 +1,37 @@
+package com.example.weatherapp;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Normalized identity of an upstream request: the path and query without the host or API key,
+ * with parameters sorted and lower-cased. Requests that OpenWeather answers identically map to
+ * the same key regardless of which node, base URL or parameter order produced them.
+ */
+final class UpstreamRequestKey {
+
+    private UpstreamRequestKey() {
+    }
+
+    static String of(String url) {
+        int scheme = url.indexOf("://");
+        int pathStart = scheme < 0 ? 0 : url.indexOf('/', scheme + 3);
+        String request = pathStart < 0 ? "/" : url.substring(pathStart);
+
+        int queryStart = request.indexOf('?');
+        if (queryStart < 0) {
+            return request.toLowerCase(Locale.ROOT);
+        }
+
+        String[] params = request.substring(queryStart + 1).split("&");
+        Arrays.sort(params);
+        StringBuilder key = new StringBuilder(request.length()).append(request, 0, queryStart);
+        char separator = '?';
+        for (String param : params) {
+            if (param.isEmpty() || param.startsWith("appid=")) continue;
+            key.append(separator).append(param);
+            separator = '&';
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.weatherapp;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * OpenWeather could not be reached or kept failing after retries.
+ */
+public class UpstreamUnavailableException extends WeatherException {
+
+    public UpstreamUnavailableException(Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Weather provider is unavailable, please retry shortly", 5, cause);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.weatherapp;
 
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
@@ -8,9 +9,11 @@ import org.springframework.scheduling.annotation.EnableAsync;
 @SpringBootApplication
 @EnableMongoAuditing
 @EnableAsync
+// Jackson and the Mongo mapper reach these reflectively; needed for the native image
+@RegisterReflectionForBinding({UserPreferences.class, WeatherResponse.class, CachedUpstreamResponse.class, Notification.class})
 public class WeatherAppApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(WeatherAppApplication.class, args);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,242 @@
+package com.example.weatherapp;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Small in-process TTL cache with LRU eviction for upstream OpenWeather results.
+ * Hits, misses, puts and evictions are exported as the standard {@code cache.*} meters.
+ *
+ * <p>With an {@link Admission} policy set, new keys first go into a small LRU window (1% of the
+ * capacity). A key pushed out of the window only takes the place of the main area's LRU victim
+ * if the policy prefers it, so a burst of one-off keys can't flush out the popular ones
+ * (W-TinyLFU). Without one, the whole cache is a single LRU as before.
+ */
+public class WeatherCache<V> implements MeterBinder {
+
+    private final String name;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final Map<String, Entry<V>> entries;
+    private final Map<String, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private int mainCapacity;
+    private int windowCapacity;
+    private Admission admission;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public WeatherCache(String name, long ttlMs, int maxEntries) {
+        this.name = name;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.mainCapacity = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                if (size() > mainCapacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Splits off an admission window and from then on admits keys leaving it only if
+     * {@code admission} prefers them to the entry they would evict.
+     */
+    public synchronized void setAdmission(Admission admission) {
+        this.admission = admission;
+        this.windowCapacity = Math.max(1, maxEntries / 100);
+        this.mainCapacity = Math.max(1, maxEntries - windowCapacity);
+    }
+
+    public synchronized V get(String key) {
+        Map<String, Entry<V>> area = areaOf(key);
+        Entry<V> entry = area.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(ttlMs)) {
+            area.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Like {@link #get}, but not counted as a hit or miss; for checking whether an entry is still
+     * the same one rather than reading it.
+     */
+    public synchronized V peek(String key) {
+        Entry<V> entry = areaOf(key).get(key);
+        return entry == null || entry.isExpired(ttlMs) ? null : entry.value;
+    }
+
+    public synchronized void put(String key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #put}, for a value that is already partly aged: the entry expires at
+     * {@code expiresAt} (epoch millis) if that is sooner than this cache's TTL.
+     */
+    public synchronized void put(String key, V value, long expiresAt) {
+        // Backdated so that isExpired fires at expiresAt
+        long timestamp = Math.min(System.currentTimeMillis(), expiresAt - ttlMs);
+        Entry<V> entry = new Entry<>(timestamp, value);
+        puts.increment();
+        if (admission == null || entries.containsKey(key)) {
+            entries.put(key, entry);
+            return;
+        }
+        window.put(key, entry);
+        if (window.size() > windowCapacity) {
+            Iterator<Map.Entry<String, Entry<V>>> eldest = window.entrySet().iterator();
+            Map.Entry<String, Entry<V>> candidate = eldest.next();
+            eldest.remove();
+            promote(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Whether {@code key} is cached and will expire within {@code withinMs}.
+     */
+    public synchronized boolean expiresWithin(String key, long withinMs) {
+        Entry<V> entry = areaOf(key).get(key);
+        if (entry == null || entry.isExpired(ttlMs)) {
+            return false;
+        }
+        return System.currentTimeMillis() - entry.timestamp > ttlMs - withinMs;
+    }
+
+    // The main area's LRU entry is the victim; an expired one goes without a contest
+    private void promote(String key, Entry<V> candidate) {
+        if (entries.size() >= mainCapacity) {
+            Map.Entry<String, Entry<V>> victim = entries.entrySet().iterator().next();
+            if (!victim.getValue().isExpired(ttlMs) && !admission.admit(key, victim.getKey())) {
+                evictions.increment();
+                return;
+            }
+        }
+        // removeEldestEntry drops the victim
+        entries.put(key, candidate);
+    }
+
+    private Map<String, Entry<V>> areaOf(String key) {
+        return window.containsKey(key) ? window : entries;
+    }
+
+    /**
+     * Copies the unexpired entries, least recently used first.
+     */
+    public synchronized List<Snapshot<V>> snapshot() {
+        List<Snapshot<V>> snapshot = new ArrayList<>(entries.size() + window.size());
+        for (Map<String, Entry<V>> area : List.of(entries, window)) {
+            area.forEach((key, entry) -> {
+                if (!entry.isExpired(ttlMs)) {
+                    snapshot.add(new Snapshot<>(key, entry.timestamp, entry.value));
+                }
+            });
+        }
+        return snapshot;
+    }
+
+    /**
+     * Puts an entry back with its original timestamp, unless it has expired in the meantime.
+     */
+    public synchronized boolean restore(String key, long timestamp, V value) {
+        if (System.currentTimeMillis() - timestamp > ttlMs) {
+            return false;
+        }
+        entries.put(key, new Entry<>(timestamp, value));
+        return true;
+    }
+
+    public synchronized void invalidate(String key) {
+        entries.remove(key);
+        window.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size() + window.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tag("cache", name).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tag("cache", name).tag("result", "miss")
+                .description("The number of times cache lookup methods have not returned a value")
+                .register(registry);
+        FunctionCounter.builder("cache.puts", puts, LongAdder::sum)
+                .tag("cache", name)
+                .description("The number of entries added to the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tag("cache", name)
+                .description("The number of entries evicted because of size or expiry")
+                .register(registry);
+        Gauge.builder("cache.size", this, WeatherCache::size)
+                .tag("cache", name)
+                .description("The number of entries in this cache")
+                .register(registry);
+    }
+
+    /**
+     * Decides which of two keys is worth keeping when only one fits.
+     */
+    public interface Admission {
+        boolean admit(String candidate, String victim);
+    }
+
+    public static final class Snapshot<V> {
+        public final String key;
+        public final long timestamp;
+        public final V value;
+
+        Snapshot(String key, long timestamp, V value) {
+            this.key = key;
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+    }
+
+    private static class Entry<V> {
+        final long timestamp;
+        final V value;
+
+        Entry(long timestamp, V value) {
+            this.timestamp = timestamp;
+            this.value = value;
+        }
+
+        boolean isExpired(long ttlMs) {
+            return System.currentTimeMillis() - timestamp > ttlMs;
+        }
+    }
+}
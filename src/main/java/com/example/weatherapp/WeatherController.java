@@ -1,5 +1,7 @@
 package com.example.weatherapp;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,19 +16,29 @@ public class WeatherController {
     @Autowired
     private WeatherService weatherService;
 
+    @Autowired
+    private AreaWeatherService areaWeatherService;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EncodedResponseCache encodedResponses;
+
     // Current weather endpoint
     @GetMapping("/weather")
     public ResponseEntity<WeatherResponse> getCurrentWeather(
             @RequestParam String city,
-            @RequestParam(defaultValue = "metric") String units) {
+            @RequestParam(defaultValue = "metric") String units,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
-            WeatherResponse response = weatherService.getCurrentWeather(city, units);
-            return ResponseEntity.ok(response);
+            String key = "current|" + CityNames.normalize(city) + "|" + units.toLowerCase();
+            return encodedResponses.respond(key, () -> weatherService.cachedSource("current", city),
+                    () -> weatherService.recordCachedLookup(city),
+                    () -> weatherService.getCurrentWeather(city, units), request, response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -40,7 +52,21 @@ public class WeatherController {
             WeatherResponse response = weatherService.getCurrentWeatherByCoordinates(lat, lon, units);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
+        }
+    }
+
+    // Current conditions on a grid over a bounding box, for map overlays
+    @GetMapping("/weather/area")
+    public ResponseEntity<WeatherResponse> getAreaWeather(
+            @RequestParam String bbox,
+            @RequestParam(defaultValue = "0.5") double resolution,
+            @RequestParam(defaultValue = "metric") String units) {
+        try {
+            WeatherResponse response = areaWeatherService.getAreaWeather(bbox, resolution, units);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return errorResponse(e);
         }
     }
 
@@ -48,12 +74,17 @@ public class WeatherController {
     @GetMapping("/forecast")
     public ResponseEntity<WeatherResponse> getForecast(
             @RequestParam String city,
-            @RequestParam(defaultValue = "metric") String units) {
+            @RequestParam(defaultValue = "metric") String units,
+            @RequestParam(defaultValue = "rows") String shape,
+            HttpServletRequest request,
+            HttpServletResponse response) {
         try {
-            WeatherResponse response = weatherService.getForecast(city, units);
-            return ResponseEntity.ok(response);
+            String key = "forecast|" + CityNames.normalize(city) + "|" + units.toLowerCase() + "|" + shape.toLowerCase();
+            return encodedResponses.respond(key, () -> weatherService.cachedSource("forecast", city),
+                    () -> weatherService.recordCachedLookup(city),
+                    () -> weatherService.getForecast(city, units, shape), request, response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -61,12 +92,13 @@ public class WeatherController {
     @GetMapping("/forecast/hourly")
     public ResponseEntity<WeatherResponse> getHourlyForecast(
             @RequestParam String city,
-            @RequestParam(defaultValue = "metric") String units) {
+            @RequestParam(defaultValue = "metric") String units,
+            @RequestParam(defaultValue = "rows") String shape) {
         try {
-            WeatherResponse response = weatherService.getHourlyForecast(city, units);
+            WeatherResponse response = weatherService.getHourlyForecast(city, units, shape);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -78,7 +110,7 @@ public class WeatherController {
             WeatherResponse response = weatherService.getAirQuality(city);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -92,7 +124,22 @@ public class WeatherController {
             WeatherResponse response = weatherService.getHistoricalWeather(city, timestamp, units);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
+        }
+    }
+
+    // Historical weather for a range of days in one call
+    @GetMapping("/history/range")
+    public ResponseEntity<WeatherResponse> getHistoricalRange(
+            @RequestParam String city,
+            @RequestParam long from,
+            @RequestParam long to,
+            @RequestParam(defaultValue = "metric") String units) {
+        try {
+            WeatherResponse response = weatherService.getHistoricalRange(city, from, to, units);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return errorResponse(e);
         }
     }
 
@@ -104,7 +151,7 @@ public class WeatherController {
             WeatherResponse response = weatherService.getUVIndex(city);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -117,7 +164,7 @@ public class WeatherController {
             WeatherResponse response = weatherService.getActivityRecommendations(city, units);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
         }
     }
 
@@ -130,7 +177,20 @@ public class WeatherController {
             WeatherResponse response = weatherService.getClothingRecommendations(city, units);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
+        }
+    }
+
+    // Activity and clothing suggestions for every forecast day
+    @GetMapping("/recommendations/forecast")
+    public ResponseEntity<WeatherResponse> getForecastRecommendations(
+            @RequestParam String city,
+            @RequestParam(defaultValue = "metric") String units) {
+        try {
+            WeatherResponse response = weatherService.getForecastRecommendations(city, units);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return errorResponse(e);
         }
     }
 
@@ -187,7 +247,23 @@ public class WeatherController {
             WeatherResponse response = weatherService.searchCities(query);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            return errorResponse(e);
+        }
+    }
+
+    // Known failures get their own status and message; anything else stays a 400 without internal details
+    private ResponseEntity<WeatherResponse> errorResponse(Exception e) {
+        if (e instanceof WeatherException) {
+            WeatherException error = (WeatherException) e;
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(error.getStatus());
+            if (error.getRetryAfterSeconds() > 0) {
+                response.header("Retry-After", String.valueOf(error.getRetryAfterSeconds()));
+            }
+            return response.body(WeatherResponse.error("error", error.getMessage()));
+        }
+        if (e instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(WeatherResponse.error("error", e.getMessage()));
         }
+        return ResponseEntity.badRequest().body(WeatherResponse.error("error", "Request could not be processed"));
     }
-}
\ No newline at end of file
+}
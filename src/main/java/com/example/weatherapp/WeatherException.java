@@ -0,0 +1,30 @@
+package com.example.weatherapp;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A failure with a known meaning for API clients. {@link WeatherController} answers with the
+ * status and message as a {@link WeatherResponse} error body; the message is safe to show.
+ */
+public class WeatherException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public WeatherException(HttpStatus status, String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Seconds the client should wait before retrying, or 0 when retrying won't help.
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
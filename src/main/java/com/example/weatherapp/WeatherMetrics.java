@@ -0,0 +1,113 @@
+package com.example.weatherapp;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation for calls to OpenWeather. Together with Spring's
+ * {@code http.server.requests} timings this separates upstream time from our own.
+ */
+@Component
+public class WeatherMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public WeatherMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Runs an upstream call, recording its latency by endpoint and outcome and
+     * tracking it as in flight while it runs.
+     */
+    public <T> T timeUpstream(String endpoint, Supplier<T> call) {
+        AtomicInteger active = inFlight(endpoint);
+        active.incrementAndGet();
+        long start = System.nanoTime();
+        String outcome = "SUCCESS";
+        String status = "200";
+        try {
+            return call.get();
+        } catch (HttpStatusCodeException e) {
+            outcome = e.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+            status = String.valueOf(e.getStatusCode().value());
+            throw e;
+        } catch (ResourceAccessException e) {
+            outcome = "IO_ERROR";
+            status = "IO_ERROR";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "UNKNOWN";
+            status = "UNKNOWN";
+            throw e;
+        } finally {
+            active.decrementAndGet();
+            Timer.builder("weather.upstream.requests")
+                    .description("Latency of OpenWeather API calls")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts a degraded answer, e.g. estimated data served because an upstream call failed.
+     */
+    public void fallback(String reason) {
+        Counter.builder("weather.fallbacks")
+                .description("Responses served from a fallback path")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts a hedged upstream call, tagged with which attempt answered first.
+     */
+    public void hedge(String endpoint, String winner) {
+        Counter.builder("weather.upstream.hedges")
+                .description("Upstream calls that were hedged with a second attempt")
+                .tag("endpoint", endpoint)
+                .tag("winner", winner)
+                .register(registry)
+                .increment();
+    }
+
+    public void retry(String endpoint) {
+        Counter.builder("weather.upstream.retries")
+                .description("Upstream calls retried after a transient failure")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .increment();
+    }
+
+    public void bindCache(WeatherCache<?> cache) {
+        cache.bindTo(registry);
+    }
+
+    private AtomicInteger inFlight(String endpoint) {
+        return inFlight.computeIfAbsent(endpoint, key -> {
+            AtomicInteger gauge = new AtomicInteger();
+            Gauge.builder("weather.upstream.inflight", gauge, AtomicInteger::get)
+                    .description("OpenWeather calls currently in flight")
+                    .tag("endpoint", key)
+                    .register(registry);
+            return gauge;
+        });
+    }
+}
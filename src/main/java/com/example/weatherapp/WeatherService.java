@@ -1,11 +1,16 @@
 package com.example.weatherapp;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -17,40 +22,230 @@ import java.time.temporal.ChronoUnit;
 @Service
 public class WeatherService {
 
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
+
     @Value("${openweather.api.key}")
     private String apiKey;
 
     @Value("${openweather.onecall.enabled:false}")
     private boolean oneCallEnabled;
 
-    private final String BASE_URL = "https://api.openweathermap.org";
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Overridable so load tests can point at a local OpenWeather stub
+    @Value("${openweather.base-url:https://api.openweathermap.org}")
+    private String baseUrl;
+
+    @Value("${weather.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Autowired
+    private WeatherMetrics metrics;
+
+    // Live OpenWeather unless openweather.provider selects record or replay
+    @Autowired
+    private UpstreamProvider upstream;
+
+    // Optional shared tier (weather.cache.l2.enabled) for multi-node deployments
+    @Autowired(required = false)
+    private SharedWeatherCache sharedCache;
+
+    // Alert pipeline (weather.notifications.enabled); fed with every fresh upstream reading
+    @Autowired(required = false)
+    private NotificationDispatcher notifications;
+
+    // Lookup frequencies per city id; decide admission to the per-city caches
+    @Autowired
+    private HotKeyTracker hotKeys;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RecommendationEngine recommendationEngine = new RecommendationEngine();
+
+    // Normalized city name -> OpenWeather city id; every other per-city cache is keyed by the id
+    private WeatherCache<String> cityIdCache;
+    private static final long CITY_ID_CACHE_DURATION_MS = 7 * 24 * 60 * 60 * 1000L; // 7 days
 
     // Cache for storing recent weather data
-    private final Map<String, CachedWeatherData> weatherCache = new HashMap<>();
+    private WeatherCache<Map<String, Object>> weatherCache;
     private static final long CACHE_DURATION_MS = 10 * 60 * 1000; // 10 minutes
 
-    public WeatherResponse getCurrentWeather(String city, String units) throws Exception {
-        String url = String.format("%s/data/2.5/weather?q=%s&appid=%s&units=%s",
-                BASE_URL, city, apiKey, units);
+    // Daily forecast summaries; OpenWeather refreshes the 3-hourly forecast a few times a day
+    private WeatherCache<List<Map<String, Object>>> forecastCache;
+    private static final long FORECAST_CACHE_DURATION_MS = 30 * 60 * 1000; // 30 minutes
+
+    // Memoized seasonal model output per (city id, day); deterministic, so only bounded by size
+    private WeatherCache<Map<String, Object>> historyCache;
+    private static final long HISTORY_CACHE_DURATION_MS = 24 * 60 * 60 * 1000; // 24 hours
+    private static final int MAX_HISTORY_RANGE_DAYS = 366;
+
+    // Upstream requests that came back 404, kept briefly so repeated lookups of a bad name stay local
+    private WeatherCache<Boolean> notFoundCache;
+    private static final String NOT_FOUND_MESSAGE = "City not found";
+
+    @Value("${weather.cache.not-found-ttl-ms:300000}")
+    private long notFoundTtlMs;
+
+    // City search results barely change, so they are kept for a day
+    private WeatherCache<List<Map<String, Object>>> geocodeCache;
+    private static final long GEOCODE_CACHE_DURATION_MS = 24 * 60 * 60 * 1000; // 24 hours
+
+    // Hourly air quality forecast per rounded location; one upstream call answers the following hours
+    private WeatherCache<List<Map<String, Object>>> airQualityCache;
+
+    @Value("${weather.cache.air-quality-ttl-ms:10800000}")
+    private long airQualityTtlMs;
+
+    @PostConstruct
+    void initCaches() {
+        cityIdCache = new WeatherCache<>("city_id", CITY_ID_CACHE_DURATION_MS, cacheMaxEntries);
+        weatherCache = new WeatherCache<>("current", CACHE_DURATION_MS, cacheMaxEntries);
+        forecastCache = new WeatherCache<>("forecast", FORECAST_CACHE_DURATION_MS, cacheMaxEntries);
+        historyCache = new WeatherCache<>("history", HISTORY_CACHE_DURATION_MS, cacheMaxEntries);
+        geocodeCache = new WeatherCache<>("geocode", GEOCODE_CACHE_DURATION_MS, cacheMaxEntries);
+        notFoundCache = new WeatherCache<>("not_found", notFoundTtlMs, cacheMaxEntries);
+        airQualityCache = new WeatherCache<>("air_quality", airQualityTtlMs, cacheMaxEntries);
+        weatherCache.setAdmission(hotKeys);
+        forecastCache.setAdmission(hotKeys);
+        metrics.bindCache(cityIdCache);
+        metrics.bindCache(weatherCache);
+        metrics.bindCache(forecastCache);
+        metrics.bindCache(historyCache);
+        metrics.bindCache(geocodeCache);
+        metrics.bindCache(notFoundCache);
+        metrics.bindCache(airQualityCache);
+    }
+
+    /**
+     * The in-process caches, for snapshotting across restarts.
+     */
+    List<WeatherCache<?>> getCaches() {
+        return List.of(cityIdCache, weatherCache, forecastCache, geocodeCache, airQualityCache);
+    }
+
+    /**
+     * The cached entry that a "current" or "forecast" response for this city is built from, or
+     * null if there is none yet. Never calls upstream; {@link EncodedResponseCache} uses it to tell
+     * whether bytes it encoded earlier are still current.
+     */
+    Object cachedSource(String type, String city) {
+        String cityId = cityIdCache.peek(CityNames.normalize(city));
+        if (cityId == null) {
+            return null;
+        }
+        switch (type) {
+            case "current":
+                return weatherCache.peek(cityId);
+            case "forecast":
+                return forecastCache.peek(cityId);
+            default:
+                return null;
+        }
+    }
 
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
+    /**
+     * Counts a lookup that {@link EncodedResponseCache} answered without calling into this
+     * service, which otherwise counts it in {@link #resolveCityId}.
+     */
+    void recordCachedLookup(String city) {
+        String cityId = cityIdCache.peek(CityNames.normalize(city));
+        if (cityId != null) {
+            hotKeys.record(cityId);
+        }
+    }
 
+    public WeatherResponse getCurrentWeather(String city, String units) throws Exception {
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("current");
         weatherResponse.setSuccess(true);
 
+        weatherResponse.setData(UnitConverter.convert(currentWeatherData(city), units));
+        return weatherResponse;
+    }
+
+    // Current conditions in canonical units; every unit system is served from this one cached entry
+    private Map<String, Object> currentWeatherData(String city) throws Exception {
+        String cityId = resolveCityId(city);
+        Map<String, Object> currentWeather = weatherCache.get(cityId);
+        if (currentWeather == null) {
+            currentWeather = fetchCurrentWeather(cityId, false);
+        }
+        return currentWeather;
+    }
+
+    private Map<String, Object> fetchCurrentWeather(String cityId, boolean refresh) throws Exception {
+        String url = String.format("%s/data/2.5/weather?id=%s&appid=%s&units=%s",
+                baseUrl, cityId, apiKey, UnitConverter.CANONICAL);
+
+        Fetched response = refresh ? refetch("weather", url) : fetch("weather", url);
+        JsonNode jsonNode = readJson(response.body);
+        Map<String, Object> currentWeather = Collections.unmodifiableMap(parseCurrentWeather(jsonNode));
+
+        // Cache this data so repeat lookups (and the endpoints that need coordinates) skip the upstream call
+        cacheWeatherData(cityId, currentWeather, response.expiresAt);
+        return currentWeather;
+    }
+
+    /**
+     * Re-fetches this city's current conditions and forecast if they are cached but due to expire
+     * within {@code aheadMs}, so popular cities don't have a miss every TTL. Entries that are not
+     * cached are left for the next request. Always goes upstream, since the shared tier most likely
+     * holds the same soon-to-expire body.
+     */
+    void refreshAhead(String cityId, long aheadMs) throws Exception {
+        if (weatherCache.expiresWithin(cityId, aheadMs)) {
+            fetchCurrentWeather(cityId, true);
+        }
+        if (forecastCache.expiresWithin(cityId, aheadMs)) {
+            fetchDailyForecast(cityId, true);
+        }
+    }
+
+    /**
+     * The city's name as OpenWeather reports it, if its current conditions are cached.
+     */
+    String cachedCityName(String cityId) {
+        Map<String, Object> currentWeather = weatherCache.peek(cityId);
+        return currentWeather == null ? null : (String) currentWeather.get("city");
+    }
+
+    /**
+     * OpenWeather's id for a city as typed by a user. Each new spelling costs one by-name
+     * current-weather call, whose result also warms the current-weather cache.
+     */
+    private String resolveCityId(String city) throws Exception {
+        String alias = CityNames.normalize(city);
+        if (alias.isEmpty()) {
+            throw new IllegalArgumentException("City must not be blank");
+        }
+
+        String cityId = cityIdCache.get(alias);
+        if (cityId != null) {
+            hotKeys.record(cityId);
+        } else {
+            String url = String.format("%s/data/2.5/weather?q=%s&appid=%s&units=%s",
+                    baseUrl, CityNames.encode(alias), apiKey, UnitConverter.CANONICAL);
+
+            Fetched response = fetch("weather", url);
+            Map<String, Object> currentWeather = Collections.unmodifiableMap(parseCurrentWeather(readJson(response.body)));
+            cityId = String.valueOf(((Number) currentWeather.get("cityId")).longValue());
+            // Counted before caching so the lookup itself weighs in on admission
+            hotKeys.record(cityId);
+            cacheWeatherData(cityId, currentWeather, response.expiresAt);
+            cityIdCache.put(alias, cityId);
+        }
+        return cityId;
+    }
+
+    // Points over open water come back without a country, name or sunrise, so those are optional
+    Map<String, Object> parseCurrentWeather(JsonNode jsonNode) {
         Map<String, Object> currentWeather = new HashMap<>();
         currentWeather.put("temperature", jsonNode.get("main").get("temp").asDouble());
         currentWeather.put("feelsLike", jsonNode.get("main").get("feels_like").asDouble());
         currentWeather.put("humidity", jsonNode.get("main").get("humidity").asInt());
         currentWeather.put("pressure", jsonNode.get("main").get("pressure").asInt());
-        currentWeather.put("visibility", jsonNode.get("visibility").asInt());
+        currentWeather.put("visibility", jsonNode.path("visibility").asInt(10000));
         currentWeather.put("windSpeed", jsonNode.get("wind").get("speed").asDouble());
         currentWeather.put("windDirection", jsonNode.has("wind") && jsonNode.get("wind").has("deg") ?
                 jsonNode.get("wind").get("deg").asInt() : 0);
+        currentWeather.put("cloudCover", jsonNode.has("clouds") ? jsonNode.get("clouds").get("all").asInt() : 0);
 
         // Weather description
         JsonNode weather = jsonNode.get("weather").get(0);
@@ -59,57 +254,43 @@ public class WeatherService {
         currentWeather.put("icon", weather.get("icon").asText());
 
         // Location and time
-        currentWeather.put("city", jsonNode.get("name").asText());
-        currentWeather.put("country", jsonNode.get("sys").get("country").asText());
-        currentWeather.put("timezone", jsonNode.get("timezone").asLong());
+        JsonNode sys = jsonNode.path("sys");
+        long timezone = jsonNode.path("timezone").asLong();
+        currentWeather.put("cityId", jsonNode.path("id").asLong());
+        currentWeather.put("city", jsonNode.path("name").asText());
+        currentWeather.put("country", sys.path("country").asText());
+        currentWeather.put("timezone", timezone);
 
         // Sunrise and sunset
-        long sunrise = jsonNode.get("sys").get("sunrise").asLong();
-        long sunset = jsonNode.get("sys").get("sunset").asLong();
-        currentWeather.put("sunrise", formatTimestamp(sunrise, jsonNode.get("timezone").asLong()));
-        currentWeather.put("sunset", formatTimestamp(sunset, jsonNode.get("timezone").asLong()));
+        if (sys.has("sunrise") && sys.has("sunset")) {
+            currentWeather.put("sunrise", formatTimestamp(sys.get("sunrise").asLong(), timezone));
+            currentWeather.put("sunset", formatTimestamp(sys.get("sunset").asLong(), timezone));
+        }
 
         // Coordinates
         JsonNode coord = jsonNode.get("coord");
         currentWeather.put("lat", coord.get("lat").asDouble());
         currentWeather.put("lon", coord.get("lon").asDouble());
 
-        // Cache this data for potential historical lookups
-        cacheWeatherData(city, currentWeather);
-
-        weatherResponse.setData(currentWeather);
-        return weatherResponse;
+        return currentWeather;
     }
 
     public WeatherResponse getCurrentWeatherByCoordinates(double lat, double lon, String units) throws Exception {
-        String url = String.format("%s/data/2.5/weather?lat=%f&lon=%f&appid=%s&units=%s",
-                BASE_URL, lat, lon, apiKey, units);
-
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
-
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("current");
         weatherResponse.setSuccess(true);
 
-        Map<String, Object> currentWeather = new HashMap<>();
-        currentWeather.put("temperature", jsonNode.get("main").get("temp").asDouble());
-        currentWeather.put("feelsLike", jsonNode.get("main").get("feels_like").asDouble());
-        currentWeather.put("humidity", jsonNode.get("main").get("humidity").asInt());
-        currentWeather.put("pressure", jsonNode.get("main").get("pressure").asInt());
-        currentWeather.put("visibility", jsonNode.get("visibility").asInt());
-        currentWeather.put("windSpeed", jsonNode.get("wind").get("speed").asDouble());
-
-        JsonNode weather = jsonNode.get("weather").get(0);
-        currentWeather.put("description", weather.get("description").asText());
-        currentWeather.put("main", weather.get("main").asText());
-        currentWeather.put("icon", weather.get("icon").asText());
+        weatherResponse.setData(UnitConverter.convert(currentWeatherAt(lat, lon), units));
+        return weatherResponse;
+    }
 
-        currentWeather.put("city", jsonNode.get("name").asText());
-        currentWeather.put("country", jsonNode.get("sys").get("country").asText());
+    // Current conditions at a point, in canonical units
+    Map<String, Object> currentWeatherAt(double lat, double lon) throws Exception {
+        String url = String.format("%s/data/2.5/weather?lat=%f&lon=%f&appid=%s&units=%s",
+                baseUrl, lat, lon, apiKey, UnitConverter.CANONICAL);
 
-        weatherResponse.setData(currentWeather);
-        return weatherResponse;
+        String response = fetch("weather", url).body;
+        return Collections.unmodifiableMap(parseCurrentWeather(readJson(response)));
     }
 
     public WeatherResponse getHistoricalWeather(String city, long timestamp, String units) throws Exception {
@@ -130,7 +311,8 @@ public class WeatherService {
                 return getHistoricalFromOneCall(city, timestamp, units);
             } catch (Exception e) {
                 // Fall back to alternative method
-                System.out.println("One Call API failed, using alternative method: " + e.getMessage());
+                metrics.fallback("onecall_historical");
+                log.warn("One Call API failed for {}, using alternative method: {}", city, e.getMessage());
             }
         }
 
@@ -144,17 +326,16 @@ public class WeatherService {
 
     private WeatherResponse getHistoricalFromOneCall(String city, long timestamp, String units) throws Exception {
         // Get coordinates first
-        WeatherResponse currentWeather = getCurrentWeather(city, units);
-        Map<String, Object> data = (Map<String, Object>) currentWeather.getData();
+        Map<String, Object> data = geocode(city);
         double lat = (Double) data.get("lat");
         double lon = (Double) data.get("lon");
 
         String url = String.format("%s/data/3.0/onecall/timemachine?lat=%f&lon=%f&dt=%d&appid=%s&units=%s",
-                BASE_URL, lat, lon, timestamp, apiKey, units);
+                baseUrl, lat, lon, timestamp, apiKey, UnitConverter.CANONICAL);
 
         try {
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
+            String response = fetch("onecall_timemachine", url).body;
+            JsonNode jsonNode = readJson(response);
 
             WeatherResponse weatherResponse = new WeatherResponse();
             weatherResponse.setType("historical");
@@ -173,7 +354,7 @@ public class WeatherService {
             historicalData.put("main", weather.get("main").asText());
             historicalData.put("icon", weather.get("icon").asText());
 
-            weatherResponse.setData(historicalData);
+            weatherResponse.setData(UnitConverter.convert(historicalData, units));
             return weatherResponse;
         } catch (HttpClientErrorException e) {
             if (e.getStatusCode().value() == 401) {
@@ -185,13 +366,16 @@ public class WeatherService {
 
     private WeatherResponse getHistoricalFromForecast(String city, long timestamp, String units) throws Exception {
         // This is a fallback method that uses current weather patterns to estimate historical data
-        WeatherResponse currentWeather = getCurrentWeather(city, units);
-        Map<String, Object> currentData = (Map<String, Object>) currentWeather.getData();
+        Map<String, Object> currentData = currentWeatherData(city);
 
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("historical");
         weatherResponse.setSuccess(true);
+        weatherResponse.setData(UnitConverter.convert(estimateFromCurrent(currentData, timestamp), units));
+        return weatherResponse;
+    }
 
+    private Map<String, Object> estimateFromCurrent(Map<String, Object> currentData, long timestamp) {
         // Create historical data based on current weather with some variations
         Map<String, Object> historicalData = new HashMap<>();
         double currentTemp = (Double) currentData.get("temperature");
@@ -233,28 +417,35 @@ public class WeatherService {
         historicalData.put("date", LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault()).format(DateTimeFormatter.ISO_LOCAL_DATE));
         historicalData.put("source", "estimated");
 
-        weatherResponse.setData(historicalData);
-        return weatherResponse;
+        return historicalData;
     }
 
     private WeatherResponse generateHistoricalWeatherData(String city, long timestamp, String units) throws Exception {
         // For dates older than 5 days, generate realistic historical weather data
-        WeatherResponse currentWeather = getCurrentWeather(city, units);
-        Map<String, Object> currentData = (Map<String, Object>) currentWeather.getData();
+        Map<String, Object> currentData = currentWeatherData(city);
 
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("historical");
         weatherResponse.setSuccess(true);
+        weatherResponse.setData(UnitConverter.convert(generateFromSeasonalModel(currentData, timestamp), units));
+        return weatherResponse;
+    }
 
+    // The seasonal model only depends on the place and the day, so each result is memoized
+    private Map<String, Object> generateFromSeasonalModel(Map<String, Object> currentData, long timestamp) {
         LocalDateTime requestedDateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault());
-        LocalDateTime now = LocalDateTime.now();
+        String key = currentData.get("cityId") + "|" + requestedDateTime.toLocalDate().toEpochDay();
+
+        Map<String, Object> historicalData = historyCache.get(key);
+        if (historicalData != null) {
+            return historicalData;
+        }
 
         // Generate weather based on seasonal patterns and location
-        Map<String, Object> historicalData = generateSeasonalWeatherData(
+        historicalData = generateSeasonalWeatherData(
                 (String) currentData.get("city"),
                 (Double) currentData.get("lat"),
-                requestedDateTime,
-                units
+                requestedDateTime
         );
 
         // Add location info
@@ -263,11 +454,61 @@ public class WeatherService {
         historicalData.put("date", requestedDateTime.format(DateTimeFormatter.ISO_LOCAL_DATE));
         historicalData.put("source", "generated");
 
-        weatherResponse.setData(historicalData);
+        historicalData = Collections.unmodifiableMap(historicalData);
+        historyCache.put(key, historicalData);
+        return historicalData;
+    }
+
+    /**
+     * Historical data for every day from {@code from} to {@code to} (epoch seconds, one point per
+     * 24 hours from {@code from}), resolving the city once. Recent days are estimated from the current
+     * conditions and older ones come from the memoized seasonal model, so a whole chart costs at most
+     * one upstream call. One Call history is not used here since it would cost a call per day.
+     */
+    public WeatherResponse getHistoricalRange(String city, long from, long to, String units) throws Exception {
+        if (to < from) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        long days = (to - from) / 86400 + 1;
+        if (days > MAX_HISTORY_RANGE_DAYS) {
+            throw new IllegalArgumentException("History range is limited to " + MAX_HISTORY_RANGE_DAYS + " days");
+        }
+
+        Map<String, Object> currentData = currentWeatherData(city);
+        LocalDate today = LocalDate.now();
+
+        List<Map<String, Object>> history = new ArrayList<>((int) days);
+        for (long timestamp = from; timestamp <= to; timestamp += 86400) {
+            LocalDate requestedDate = LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault()).toLocalDate();
+            long daysDifference = ChronoUnit.DAYS.between(requestedDate, today);
+
+            if (daysDifference <= 0) {
+                Map<String, Object> current = new HashMap<>(currentData);
+                current.put("date", requestedDate.format(DateTimeFormatter.ISO_LOCAL_DATE));
+                current.put("source", "current");
+                history.add(UnitConverter.convert(current, units));
+            } else if (daysDifference <= 5) {
+                history.add(UnitConverter.convert(estimateFromCurrent(currentData, timestamp), units));
+            } else {
+                history.add(UnitConverter.convert(generateFromSeasonalModel(currentData, timestamp), units));
+            }
+        }
+
+        WeatherResponse weatherResponse = new WeatherResponse();
+        weatherResponse.setType("historical_range");
+        weatherResponse.setSuccess(true);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("city", currentData.get("city"));
+        data.put("country", currentData.get("country"));
+        data.put("from", from);
+        data.put("to", to);
+        data.put("days", history);
+        weatherResponse.setData(data);
         return weatherResponse;
     }
 
-    private Map<String, Object> generateSeasonalWeatherData(String city, double latitude, LocalDateTime dateTime, String units) {
+    private Map<String, Object> generateSeasonalWeatherData(String city, double latitude, LocalDateTime dateTime) {
         Map<String, Object> data = new HashMap<>();
         Random random = new Random(dateTime.toLocalDate().toEpochDay()); // Consistent randomization
 
@@ -297,18 +538,13 @@ public class WeatherService {
         double dailyVariation = (random.nextDouble() - 0.5) * 15; // ±7.5 degrees
         double temperature = baseTemp + dailyVariation;
 
-        // Convert to Fahrenheit if needed
-        if ("imperial".equals(units)) {
-            temperature = temperature * 9.0 / 5.0 + 32;
-        }
-
         data.put("temperature", Math.round(temperature * 10.0) / 10.0);
         data.put("feelsLike", Math.round((temperature - 2 + random.nextDouble() * 4) * 10.0) / 10.0);
 
         // Generate other weather parameters
         data.put("humidity", 40 + random.nextInt(41)); // 40-80%
         data.put("pressure", 1000 + random.nextInt(41)); // 1000-1040 hPa
-        data.put("windSpeed", Math.round(random.nextDouble() * 15 * 10.0) / 10.0); // 0-15 km/h or mph
+        data.put("windSpeed", Math.round(random.nextDouble() * 15 * 10.0) / 10.0); // 0-15 m/s
 
         // Generate weather conditions based on season and randomness
         String[] conditions = getSeasonalConditions(month, isNorthern);
@@ -375,100 +611,146 @@ public class WeatherService {
         }
     }
 
-    private void cacheWeatherData(String city, Map<String, Object> weatherData) {
-        weatherCache.put(city, new CachedWeatherData(System.currentTimeMillis(), weatherData));
+    private void cacheWeatherData(String cityId, Map<String, Object> weatherData, long expiresAt) {
+        weatherCache.put(cityId, weatherData, expiresAt);
+        if (notifications != null) {
+            notifications.onCurrentWeather(weatherData);
+        }
     }
 
-    private static class CachedWeatherData {
-        long timestamp;
-        Map<String, Object> data;
-
-        CachedWeatherData(long timestamp, Map<String, Object> data) {
-            this.timestamp = timestamp;
-            this.data = data;
+    /**
+     * The upstream body for {@code url}, from the shared tier if it has it. A shared entry keeps the
+     * expiry it has there, so the in-process caches don't hold it for another full TTL.
+     */
+    private Fetched fetch(String endpoint, String url) {
+        String requestKey = UpstreamRequestKey.of(url);
+        if (notFoundCache.get(requestKey) != null) {
+            throw new CityNotFoundException(NOT_FOUND_MESSAGE, null);
         }
 
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > CACHE_DURATION_MS;
+        if (sharedCache != null) {
+            CachedUpstreamResponse shared = sharedCache.get(requestKey);
+            if (shared != null) {
+                return new Fetched(shared.getBody(), shared.getExpiresAt().getTime());
+            }
         }
+        return fetchUpstream(endpoint, url, requestKey);
     }
 
-    // ... Rest of your existing methods (getForecast, getHourlyForecast, etc.) remain the same ...
-
-    public WeatherResponse getForecast(String city, String units) throws Exception {
-        String url = String.format("%s/data/2.5/forecast?q=%s&appid=%s&units=%s",
-                BASE_URL, city, apiKey, units);
-
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
+    /**
+     * Skips the shared tier and writes the fresh body through to it, for refreshing an entry
+     * before it expires.
+     */
+    private Fetched refetch(String endpoint, String url) {
+        return fetchUpstream(endpoint, url, UpstreamRequestKey.of(url));
+    }
 
-        WeatherResponse weatherResponse = new WeatherResponse();
-        weatherResponse.setType("forecast");
-        weatherResponse.setSuccess(true);
+    private Fetched fetchUpstream(String endpoint, String url, String requestKey) {
+        String response;
+        try (RequestTiming.Span span = RequestTiming.span("upstream." + endpoint)) {
+            response = upstream.get(endpoint, url);
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().value() == 404) {
+                // Unknown names are remembered briefly so retries and typos don't each cost an upstream call
+                notFoundCache.put(requestKey, Boolean.TRUE);
+                throw new CityNotFoundException(NOT_FOUND_MESSAGE, e);
+            }
+            if (e.getStatusCode().value() == 429) {
+                throw new QuotaExceededException(e);
+            }
+            throw e;
+        } catch (HttpServerErrorException | ResourceAccessException e) {
+            throw new UpstreamUnavailableException(e);
+        }
 
-        List<Map<String, Object>> forecastList = new ArrayList<>();
-        JsonNode list = jsonNode.get("list");
+        if (sharedCache != null && response != null) {
+            sharedCache.putAsync(requestKey, endpoint, response);
+        }
+        return new Fetched(response, Long.MAX_VALUE);
+    }
 
-        // Group by day for 5-day forecast
-        Map<String, List<JsonNode>> dailyForecasts = new LinkedHashMap<>();
+    private static final class Fetched {
+        final String body;
+        final long expiresAt; // epoch millis; Long.MAX_VALUE when fresh from upstream
 
-        for (JsonNode item : list) {
-            long timestamp = item.get("dt").asLong();
-            String date = LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault())
-                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
+        Fetched(String body, long expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
 
-            dailyForecasts.computeIfAbsent(date, k -> new ArrayList<>()).add(item);
+    private JsonNode readJson(String response) throws Exception {
+        try (RequestTiming.Span span = RequestTiming.span("parse")) {
+            return objectMapper.readTree(response);
         }
+    }
 
-        for (Map.Entry<String, List<JsonNode>> entry : dailyForecasts.entrySet()) {
-            if (forecastList.size() >= 5) break;
+    // Coordinates come from the current-weather lookup, which is usually a cache hit
+    private Map<String, Object> geocode(String city) throws Exception {
+        try (RequestTiming.Span span = RequestTiming.span("geocode")) {
+            return currentWeatherData(city);
+        }
+    }
 
-            List<JsonNode> dayForecasts = entry.getValue();
-            JsonNode mainForecast = dayForecasts.get(dayForecasts.size() / 2); // Middle of the day
+    // ... Rest of your existing methods (getForecast, getHourlyForecast, etc.) remain the same ...
 
-            Map<String, Object> dayForecast = new HashMap<>();
-            dayForecast.put("date", entry.getKey());
-            dayForecast.put("dayOfWeek", LocalDateTime.ofInstant(
-                    Instant.ofEpochSecond(mainForecast.get("dt").asLong()),
-                    ZoneId.systemDefault()).getDayOfWeek().toString());
+    public WeatherResponse getForecast(String city, String units, String shape) throws Exception {
+        WeatherResponse weatherResponse = new WeatherResponse();
+        weatherResponse.setType("forecast");
+        weatherResponse.setSuccess(true);
 
-            // Calculate min/max temperatures for the day
-            double minTemp = dayForecasts.stream()
-                    .mapToDouble(f -> f.get("main").get("temp_min").asDouble())
-                    .min().orElse(0);
-            double maxTemp = dayForecasts.stream()
-                    .mapToDouble(f -> f.get("main").get("temp_max").asDouble())
-                    .max().orElse(0);
+        List<Map<String, Object>> forecasts = UnitConverter.convertAll(getDailyForecast(city), units);
+        weatherResponse.setData(Map.of("forecasts", shaped(forecasts, shape)));
+        return weatherResponse;
+    }
 
-            dayForecast.put("minTemp", minTemp);
-            dayForecast.put("maxTemp", maxTemp);
+    // Rows (a list of maps) by default, or one array per field with ?shape=columnar
+    private static Object shaped(List<Map<String, Object>> series, String shape) {
+        return "columnar".equalsIgnoreCase(shape) ? ColumnarSeries.of(series) : series;
+    }
 
-            JsonNode weather = mainForecast.get("weather").get(0);
-            dayForecast.put("description", weather.get("description").asText());
-            dayForecast.put("main", weather.get("main").asText());
-            dayForecast.put("icon", weather.get("icon").asText());
+    // Daily summaries in canonical units
+    private List<Map<String, Object>> getDailyForecast(String city) throws Exception {
+        String cityId = resolveCityId(city);
+        List<Map<String, Object>> forecasts = forecastCache.get(cityId);
+        if (forecasts == null) {
+            forecasts = fetchDailyForecast(cityId, false);
+        }
+        return forecasts;
+    }
 
-            dayForecast.put("humidity", mainForecast.get("main").get("humidity").asInt());
-            dayForecast.put("windSpeed", mainForecast.get("wind").get("speed").asDouble());
+    private List<Map<String, Object>> fetchDailyForecast(String cityId, boolean refresh) throws Exception {
+        String url = String.format("%s/data/2.5/forecast?id=%s&appid=%s&units=%s",
+                baseUrl, cityId, apiKey, UnitConverter.CANONICAL);
 
-            forecastList.add(dayForecast);
-        }
+        Fetched response = refresh ? refetch("forecast", url) : fetch("forecast", url);
+        List<Map<String, Object>> forecasts = Collections.unmodifiableList(parseDailyForecast(readJson(response.body)));
+        forecastCache.put(cityId, forecasts, response.expiresAt);
+        return forecasts;
+    }
 
-        weatherResponse.setData(Map.of("forecasts", forecastList));
-        return weatherResponse;
+    List<Map<String, Object>> parseDailyForecast(JsonNode jsonNode) {
+        // 5-day forecast, grouped by day in the city's own timezone
+        return DailyForecastAggregator.aggregate(jsonNode, 5);
     }
 
-    public WeatherResponse getHourlyForecast(String city, String units) throws Exception {
-        String url = String.format("%s/data/2.5/forecast?q=%s&appid=%s&units=%s",
-                BASE_URL, city, apiKey, units);
+    public WeatherResponse getHourlyForecast(String city, String units, String shape) throws Exception {
+        String url = String.format("%s/data/2.5/forecast?id=%s&appid=%s&units=%s",
+                baseUrl, resolveCityId(city), apiKey, UnitConverter.CANONICAL);
 
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
+        String response = fetch("forecast", url).body;
+        JsonNode jsonNode = readJson(response);
 
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("hourly");
         weatherResponse.setSuccess(true);
 
+        List<Map<String, Object>> hourly = UnitConverter.convertAll(parseHourlyForecast(jsonNode), units);
+        weatherResponse.setData(Map.of("hourly", shaped(hourly, shape)));
+        return weatherResponse;
+    }
+
+    List<Map<String, Object>> parseHourlyForecast(JsonNode jsonNode) {
         List<Map<String, Object>> hourlyList = new ArrayList<>();
         JsonNode list = jsonNode.get("list");
 
@@ -477,6 +759,7 @@ public class WeatherService {
             JsonNode item = list.get(i);
 
             Map<String, Object> hourlyForecast = new HashMap<>();
+            hourlyForecast.put("timestamp", item.get("dt").asLong());
             hourlyForecast.put("datetime", formatTimestamp(item.get("dt").asLong(), 0));
             hourlyForecast.put("temperature", item.get("main").get("temp").asDouble());
             hourlyForecast.put("feelsLike", item.get("main").get("feels_like").asDouble());
@@ -490,28 +773,78 @@ public class WeatherService {
             hourlyList.add(hourlyForecast);
         }
 
-        weatherResponse.setData(Map.of("hourly", hourlyList));
-        return weatherResponse;
+        return hourlyList;
     }
 
     public WeatherResponse getAirQuality(String city) throws Exception {
         // First get coordinates
-        WeatherResponse currentWeather = getCurrentWeather(city, "metric");
-        Map<String, Object> data = (Map<String, Object>) currentWeather.getData();
+        Map<String, Object> data = geocode(city);
         double lat = (Double) data.get("lat");
         double lon = (Double) data.get("lon");
 
-        String url = String.format("%s/data/2.5/air_pollution?lat=%f&lon=%f&appid=%s",
-                BASE_URL, lat, lon, apiKey);
-
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
-
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("air_quality");
         weatherResponse.setSuccess(true);
 
-        JsonNode airQuality = jsonNode.get("list").get(0);
+        Map<String, Object> airQuality = airQualityAt(lat, lon);
+        if (notifications != null) {
+            notifications.onAirQuality(data, airQuality);
+        }
+        weatherResponse.setData(airQuality);
+        return weatherResponse;
+    }
+
+    // The reading for the current hour, from the location's cached hourly forecast
+    private Map<String, Object> airQualityAt(double lat, double lon) throws Exception {
+        String roundedLat = roundCoordinate(lat);
+        String roundedLon = roundCoordinate(lon);
+        String key = roundedLat + "," + roundedLon;
+        long now = System.currentTimeMillis() / 1000;
+        List<Map<String, Object>> hours = airQualityCache.get(key);
+        Map<String, Object> current = hours == null ? null : hourAt(hours, now);
+        if (current == null) {
+            String url = String.format("%s/data/2.5/air_pollution/forecast?lat=%s&lon=%s&appid=%s",
+                    baseUrl, roundedLat, roundedLon, apiKey);
+
+            Fetched response = fetch("air_pollution_forecast", url);
+            JsonNode list = readJson(response.body).get("list");
+            hours = new ArrayList<>(list.size());
+            for (JsonNode item : list) {
+                Map<String, Object> hour = parseAirQualityItem(item);
+                hour.put("dt", item.get("dt").asLong());
+                hours.add(Collections.unmodifiableMap(hour));
+            }
+            hours = Collections.unmodifiableList(hours);
+            current = hourAt(hours, now);
+            if (current == null) {
+                throw new UpstreamUnavailableException(new IllegalStateException("Air quality forecast does not cover the current hour"));
+            }
+            airQualityCache.put(key, hours, response.expiresAt);
+        }
+        return current;
+    }
+
+    // The latest hour that has started, or null once the forecast no longer covers now
+    private static Map<String, Object> hourAt(List<Map<String, Object>> hours, long epochSeconds) {
+        Map<String, Object> match = null;
+        for (Map<String, Object> hour : hours) {
+            long dt = ((Number) hour.get("dt")).longValue();
+            if (dt > epochSeconds) break;
+            if (epochSeconds < dt + 3600) match = hour;
+        }
+        return match;
+    }
+
+    // Two decimals is about 1 km; nearby lookups share a cache entry and an upstream request
+    private static String roundCoordinate(double degrees) {
+        return String.format(Locale.ROOT, "%.2f", degrees);
+    }
+
+    Map<String, Object> parseAirQuality(JsonNode jsonNode) {
+        return parseAirQualityItem(jsonNode.get("list").get(0));
+    }
+
+    private Map<String, Object> parseAirQualityItem(JsonNode airQuality) {
         Map<String, Object> aqData = new HashMap<>();
 
         int aqi = airQuality.get("main").get("aqi").asInt();
@@ -532,56 +865,51 @@ public class WeatherService {
         pollutants.put("nh3", components.get("nh3").asDouble());
 
         aqData.put("pollutants", pollutants);
-        weatherResponse.setData(aqData);
-        return weatherResponse;
+        return aqData;
     }
 
 
     public WeatherResponse getUVIndex(String city) throws Exception {
-        // Get coordinates first
-        WeatherResponse currentWeather = getCurrentWeather(city, "metric");
-        Map<String, Object> data = (Map<String, Object>) currentWeather.getData();
+        // Computed from the sun's position and the cached conditions' cloud cover; no upstream call of its own
+        Map<String, Object> data = geocode(city);
         double lat = (Double) data.get("lat");
         double lon = (Double) data.get("lon");
-
-        String url = String.format("%s/data/2.5/uvi?lat=%f&lon=%f&appid=%s",
-                BASE_URL, lat, lon, apiKey);
-
-        try {
-            String response = restTemplate.getForObject(url, String.class);
-            JsonNode jsonNode = objectMapper.readTree(response);
-
-            WeatherResponse weatherResponse = new WeatherResponse();
-            weatherResponse.setType("uv_index");
-            weatherResponse.setSuccess(true);
-
-            double uvIndex = jsonNode.get("value").asDouble();
-            Map<String, Object> uvData = new HashMap<>();
-            uvData.put("uvIndex", uvIndex);
-            uvData.put("uvLevel", getUVLevel(uvIndex));
-            uvData.put("recommendation", getUVRecommendation(uvIndex));
-
-            weatherResponse.setData(uvData);
-            return weatherResponse;
-        } catch (Exception e) {
-            // Fallback with estimated UV index
-            WeatherResponse weatherResponse = new WeatherResponse();
-            weatherResponse.setType("uv_index");
-            weatherResponse.setSuccess(true);
-
-            Map<String, Object> uvData = new HashMap<>();
-            uvData.put("uvIndex", 5.0);
-            uvData.put("uvLevel", "Moderate");
-            uvData.put("recommendation", "Seek shade during midday hours");
-
-            weatherResponse.setData(uvData);
-            return weatherResponse;
+        long timezone = ((Number) data.get("timezone")).longValue();
+        double cloudCover = data.get("cloudCover") instanceof Number ? ((Number) data.get("cloudCover")).doubleValue() : 0;
+
+        long now = System.currentTimeMillis() / 1000;
+        long localDay = Math.floorDiv(now + timezone, 86_400);
+        double elevation = SolarModel.elevation(lat, lon, now);
+        double noonElevation = SolarModel.elevation(lat, lon, SolarModel.solarNoon(lon, localDay));
+        double uvIndex = Math.round(SolarModel.uvIndex(elevation, cloudCover) * 10) / 10.0;
+
+        Map<String, Object> uvData = new HashMap<>();
+        uvData.put("uvIndex", uvIndex);
+        uvData.put("uvLevel", getUVLevel(uvIndex));
+        uvData.put("recommendation", getUVRecommendation(uvIndex));
+        uvData.put("clearSkyUvIndex", Math.round(SolarModel.clearSkyUvIndex(elevation) * 10) / 10.0);
+        uvData.put("peakUvIndex", Math.round(SolarModel.uvIndex(noonElevation, cloudCover) * 10) / 10.0);
+        uvData.put("cloudCover", cloudCover);
+        uvData.put("solarElevation", Math.round(elevation * 10) / 10.0);
+
+        // Left out when the sun doesn't rise or set that day (polar night, midnight sun)
+        long sunrise = SolarModel.sunrise(lat, lon, localDay);
+        long sunset = SolarModel.sunset(lat, lon, localDay);
+        if (sunrise != SolarModel.NO_EVENT) {
+            uvData.put("sunrise", formatTimestamp(sunrise, timezone));
+            uvData.put("sunset", formatTimestamp(sunset, timezone));
         }
+
+        WeatherResponse weatherResponse = new WeatherResponse();
+        weatherResponse.setType("uv_index");
+        weatherResponse.setSuccess(true);
+        weatherResponse.setData(uvData);
+        return weatherResponse;
     }
 
     public WeatherResponse getActivityRecommendations(String city, String units) throws Exception {
-        WeatherResponse currentWeather = getCurrentWeather(city, units);
-        Map<String, Object> weatherData = (Map<String, Object>) currentWeather.getData();
+        // Recommendation thresholds are in Celsius and m/s, so they always read the canonical data
+        Map<String, Object> weatherData = currentWeatherData(city);
 
         WeatherResponse response = new WeatherResponse();
         response.setType("activity_recommendations");
@@ -594,8 +922,8 @@ public class WeatherService {
     }
 
     public WeatherResponse getClothingRecommendations(String city, String units) throws Exception {
-        WeatherResponse currentWeather = getCurrentWeather(city, units);
-        Map<String, Object> weatherData = (Map<String, Object>) currentWeather.getData();
+        // Recommendation thresholds are in Celsius and m/s, so they always read the canonical data
+        Map<String, Object> weatherData = currentWeatherData(city);
 
         WeatherResponse response = new WeatherResponse();
         response.setType("clothing_recommendations");
@@ -607,17 +935,55 @@ public class WeatherService {
         return response;
     }
 
-    public WeatherResponse searchCities(String query) throws Exception {
-        String url = String.format("%s/geo/1.0/direct?q=%s&limit=5&appid=%s",
-                BASE_URL, query, apiKey);
+    // Activity and clothing suggestions for each day of the forecast, from the cached daily summaries
+    public WeatherResponse getForecastRecommendations(String city, String units) throws Exception {
+        List<Map<String, Object>> forecasts = getDailyForecast(city);
 
-        String response = restTemplate.getForObject(url, String.class);
-        JsonNode jsonNode = objectMapper.readTree(response);
+        WeatherResponse response = new WeatherResponse();
+        response.setType("forecast_recommendations");
+        response.setSuccess(true);
 
+        List<Map<String, Object>> days = new ArrayList<>(forecasts.size());
+        for (Map<String, Object> day : forecasts) {
+            // Daytime conditions drive what people plan for, so the day's high is used
+            double temperature = ((Number) day.get("maxTemp")).doubleValue();
+            String main = (String) day.get("main");
+            double windSpeed = ((Number) day.get("windSpeed")).doubleValue();
+            int humidity = ((Number) day.get("humidity")).intValue();
+
+            Map<String, Object> dayRecommendations = new HashMap<>();
+            dayRecommendations.put("date", day.get("date"));
+            dayRecommendations.put("dayOfWeek", day.get("dayOfWeek"));
+            dayRecommendations.put("activities", recommendationEngine.activitiesFor(temperature, main, windSpeed, humidity));
+            dayRecommendations.put("clothing", recommendationEngine.clothingFor(temperature, main, windSpeed, humidity));
+            days.add(dayRecommendations);
+        }
+
+        response.setData(Map.of("days", days));
+        return response;
+    }
+
+    public WeatherResponse searchCities(String query) throws Exception {
         WeatherResponse weatherResponse = new WeatherResponse();
         weatherResponse.setType("city_search");
         weatherResponse.setSuccess(true);
 
+        String normalizedQuery = CityNames.normalize(query);
+        List<Map<String, Object>> cities = geocodeCache.get(normalizedQuery);
+        if (cities == null) {
+            String url = String.format("%s/geo/1.0/direct?q=%s&limit=5&appid=%s",
+                    baseUrl, CityNames.encode(normalizedQuery), apiKey);
+
+            Fetched response = fetch("geo_direct", url);
+            cities = Collections.unmodifiableList(parseCitySearch(readJson(response.body)));
+            geocodeCache.put(normalizedQuery, cities, response.expiresAt);
+        }
+
+        weatherResponse.setData(Map.of("cities", cities));
+        return weatherResponse;
+    }
+
+    List<Map<String, Object>> parseCitySearch(JsonNode jsonNode) {
         List<Map<String, Object>> cities = new ArrayList<>();
         for (JsonNode city : jsonNode) {
             Map<String, Object> cityData = new HashMap<>();
@@ -628,9 +994,7 @@ public class WeatherService {
             cityData.put("lon", city.get("lon").asDouble());
             cities.add(cityData);
         }
-
-        weatherResponse.setData(Map.of("cities", cities));
-        return weatherResponse;
+        return cities;
     }
 
     // Helper methods
@@ -708,96 +1072,11 @@ public class WeatherService {
         else return "Take all precautions - avoid sun exposure";
     }
 
-    private List<String> generateActivityRecommendations(Map<String, Object> weather) {
-        List<String> activities = new ArrayList<>();
-        double temp = (Double) weather.get("temperature");
-        String main = (String) weather.get("main");
-        double windSpeed = (Double) weather.get("windSpeed");
-
-        if (main.toLowerCase().contains("rain")) {
-            activities.add("Visit a museum or gallery");
-            activities.add("Go to a shopping mall");
-            activities.add("Try indoor rock climbing");
-            activities.add("Visit a cinema");
-        } else if (temp > 25) {
-            activities.add("Go to the beach or swimming pool");
-            activities.add("Have a picnic in the park");
-            activities.add("Go for a bike ride");
-            activities.add("Outdoor barbecue");
-        } else if (temp < 10) {
-            activities.add("Visit a cozy café");
-            activities.add("Go ice skating");
-            activities.add("Museum hopping");
-            activities.add("Indoor yoga class");
-        } else {
-            activities.add("Go for a walk in the park");
-            activities.add("Outdoor photography");
-            activities.add("Visit local markets");
-            activities.add("Hiking");
-        }
-
-        if (windSpeed > 10) {
-            activities.add("Go kite flying");
-            activities.add("Try windsurfing");
-        }
-
-        return activities;
-    }
-
-    private List<String> generateClothingRecommendations(Map<String, Object> weather) {
-        List<String> clothing = new ArrayList<>();
-        double temp = (Double) weather.get("temperature");
-        String main = (String) weather.get("main");
-        double windSpeed = (Double) weather.get("windSpeed");
-        int humidity = (Integer) weather.get("humidity");
-
-        if (main.toLowerCase().contains("rain")) {
-            clothing.add("Waterproof jacket or raincoat");
-            clothing.add("Umbrella");
-            clothing.add("Waterproof shoes or boots");
-            clothing.add("Quick-dry clothing");
-        }
-
-        if (temp > 30) {
-            clothing.add("Light, breathable fabrics");
-            clothing.add("Shorts or light pants");
-            clothing.add("T-shirt or tank top");
-            clothing.add("Sun hat and sunglasses");
-            clothing.add("Sandals or breathable shoes");
-        } else if (temp > 20) {
-            clothing.add("Light layers");
-            clothing.add("Long pants or jeans");
-            clothing.add("Light sweater or cardigan");
-            clothing.add("Comfortable walking shoes");
-        } else if (temp > 10) {
-            clothing.add("Medium weight jacket");
-            clothing.add("Long pants");
-            clothing.add("Sweater or hoodie");
-            clothing.add("Closed-toe shoes");
-        } else if (temp > 0) {
-            clothing.add("Warm coat or heavy jacket");
-            clothing.add("Thermal layers");
-            clothing.add("Warm pants");
-            clothing.add("Gloves and warm hat");
-            clothing.add("Insulated boots");
-        } else {
-            clothing.add("Heavy winter coat");
-            clothing.add("Multiple thermal layers");
-            clothing.add("Insulated pants");
-            clothing.add("Winter gloves and hat");
-            clothing.add("Warm winter boots");
-            clothing.add("Scarf");
-        }
-
-        if (windSpeed > 15) {
-            clothing.add("Windbreaker or wind-resistant jacket");
-        }
-
-        if (humidity > 80) {
-            clothing.add("Moisture-wicking fabrics");
-            clothing.add("Breathable materials");
-        }
+    List<String> generateActivityRecommendations(Map<String, Object> weather) {
+        return recommendationEngine.activitiesFor(weather);
+    }
 
-        return clothing;
+    List<String> generateClothingRecommendations(Map<String, Object> weather) {
+        return recommendationEngine.clothingFor(weather);
     }
 }
\ No newline at end of file
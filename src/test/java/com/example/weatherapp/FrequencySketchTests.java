@@ -0,0 +1,73 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the guarantees {@link HotKeyTracker} relies on: estimates only ever overcount, and
+ * counts age once the sample size is reached.
+ */
+class FrequencySketchTests {
+
+    @Test
+    void estimateNeverUndercounts() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        Map<String, Integer> counts = new HashMap<>();
+        Random random = new Random(42);
+        // Stays below the sample size so no aging happens
+        for (int i = 0; i < 5000; i++) {
+            String key = "city:" + random.nextInt(500);
+            sketch.increment(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+
+        assertThat(sketch.generation()).isZero();
+        counts.forEach((key, count) -> assertThat(sketch.frequency(key)).isGreaterThanOrEqualTo(count));
+    }
+
+    @Test
+    void incrementReturnsTheNewEstimate() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+
+        assertThat(sketch.increment("2643743")).isEqualTo(1);
+        assertThat(sketch.increment("2643743")).isEqualTo(2);
+        assertThat(sketch.frequency("2643743")).isEqualTo(2);
+        assertThat(sketch.frequency("5128581")).isZero();
+    }
+
+    @Test
+    void countersSaturate() {
+        FrequencySketch sketch = new FrequencySketch(100_000);
+        for (int i = 0; i < 300; i++) {
+            sketch.increment("2643743");
+        }
+
+        assertThat(sketch.frequency("2643743")).isEqualTo(255);
+    }
+
+    @Test
+    void countsAreHalvedOnceTheSampleSizeIsReached() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        assertThat(sketch.sampleSize()).isEqualTo(640);
+
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("2643743");
+        }
+        for (int i = 0; i < 629; i++) {
+            sketch.increment("5128581");
+        }
+        assertThat(sketch.generation()).isZero();
+        assertThat(sketch.frequency("2643743")).isEqualTo(10);
+
+        sketch.increment("5128581");
+
+        assertThat(sketch.generation()).isEqualTo(1);
+        assertThat(sketch.frequency("2643743")).isEqualTo(5);
+        assertThat(sketch.frequency("5128581")).isEqualTo(127);
+    }
+}
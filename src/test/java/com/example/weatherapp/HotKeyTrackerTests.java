@@ -0,0 +1,96 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks TinyLFU admission and the bounded heavy-hitter set of {@link HotKeyTracker}.
+ */
+class HotKeyTrackerTests {
+
+    @Test
+    void oneOffKeyIsNotAdmittedOverAHotVictim() {
+        HotKeyTracker tracker = new HotKeyTracker(1000, 10);
+        record(tracker, "2643743", 20);
+        record(tracker, "5128581", 1);
+
+        assertThat(tracker.admit("5128581", "2643743")).isFalse();
+        assertThat(tracker.admit("2643743", "5128581")).isTrue();
+    }
+
+    @Test
+    void admissionKeepsHotEntriesThroughAScan() {
+        HotKeyTracker tracker = new HotKeyTracker(10_000, 10);
+        WeatherCache<String> cache = new WeatherCache<>("test", 60_000, 100);
+        cache.setAdmission(tracker);
+        for (int i = 0; i < 50; i++) {
+            record(tracker, "hot:" + i, 5);
+            cache.put("hot:" + i, "body");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            tracker.record("scan:" + i);
+            cache.put("scan:" + i, "body");
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(cache.peek("hot:" + i)).isEqualTo("body");
+        }
+    }
+
+    @Test
+    void hotterKeyReplacesTheWeakestHeavyHitter() {
+        HotKeyTracker tracker = new HotKeyTracker(1000, 2);
+        record(tracker, "2643743", 5);
+        record(tracker, "5128581", 3);
+        assertThat(tracker.hotKeys()).containsOnlyKeys("2643743", "5128581");
+
+        record(tracker, "2988507", 6);
+
+        assertThat(tracker.hotKeys()).containsOnlyKeys("2988507", "2643743");
+    }
+
+    @Test
+    void heavyHittersNeverExceedTopKUnderConcurrentLookups() throws Exception {
+        int topK = 5;
+        int threads = 16;
+        HotKeyTracker tracker = new HotKeyTracker(10_000, topK);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> lookups = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                lookups.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        tracker.record(thread + ":" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> lookup : lookups) {
+                lookup.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(tracker.hotKeys()).hasSize(topK);
+    }
+
+    private static void record(HotKeyTracker tracker, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
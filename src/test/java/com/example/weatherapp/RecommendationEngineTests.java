@@ -0,0 +1,71 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Checks the decision tables in {@link RecommendationEngine} against the rules they encode.
+ */
+class RecommendationEngineTests {
+
+    private final RecommendationEngine engine = new RecommendationEngine();
+
+    @Test
+    void rainOverridesTemperatureForActivities() {
+        assertThat(engine.activitiesFor(weather(28, "Rain", 3, 60)))
+                .containsExactly("Visit a museum or gallery", "Go to a shopping mall",
+                        "Try indoor rock climbing", "Visit a cinema");
+    }
+
+    @Test
+    void windAddsKiteFlyingToAnyActivityBand() {
+        assertThat(engine.activitiesFor(weather(5, "Clear", 12, 60)))
+                .containsExactly("Visit a cozy café", "Go ice skating", "Museum hopping", "Indoor yoga class",
+                        "Go kite flying", "Try windsurfing");
+    }
+
+    @Test
+    void clothingCombinesRainTemperatureWindAndHumidity() {
+        assertThat(engine.clothingFor(weather(-3, "Rain", 16, 85)))
+                .containsExactly("Waterproof jacket or raincoat", "Umbrella", "Waterproof shoes or boots",
+                        "Quick-dry clothing", "Heavy winter coat", "Multiple thermal layers", "Insulated pants",
+                        "Winter gloves and hat", "Warm winter boots", "Scarf",
+                        "Windbreaker or wind-resistant jacket", "Moisture-wicking fabrics", "Breathable materials");
+    }
+
+    @Test
+    void temperatureBandEdges() {
+        assertThat(engine.clothingFor(weather(30, "Clear", 0, 50))).startsWith("Light layers");
+        assertThat(engine.clothingFor(weather(30.1, "Clear", 0, 50))).startsWith("Light, breathable fabrics");
+        assertThat(engine.clothingFor(weather(10.1, "Clear", 0, 50))).startsWith("Medium weight jacket");
+        assertThat(engine.clothingFor(weather(10, "Clear", 0, 50))).startsWith("Warm coat or heavy jacket");
+        assertThat(engine.clothingFor(weather(0, "Clear", 0, 50))).startsWith("Heavy winter coat");
+        assertThat(engine.activitiesFor(weather(25, "Clear", 0, 50))).startsWith("Go for a walk in the park");
+        assertThat(engine.activitiesFor(weather(10, "Clear", 0, 50))).startsWith("Go for a walk in the park");
+        assertThat(engine.activitiesFor(weather(9.9, "Clear", 0, 50))).startsWith("Visit a cozy café");
+    }
+
+    @Test
+    void sameBucketSharesOneImmutableList() {
+        List<String> first = engine.activitiesFor(weather(15, "Clouds", 2, 40));
+        List<String> second = engine.activitiesFor(weather(19, "Clear", 4, 70));
+
+        assertThat(first).isSameAs(second);
+        assertThatThrownBy(() -> first.add("Anything")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    private static Map<String, Object> weather(double temperature, String main, double windSpeed, int humidity) {
+        Map<String, Object> weather = new HashMap<>();
+        weather.put("temperature", temperature);
+        weather.put("main", main);
+        weather.put("windSpeed", windSpeed);
+        weather.put("humidity", humidity);
+        return weather;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Checks {@link SolarModel} against published sunrise and sunset times and the edge cases of
+ * the UV model.
+ */
+class SolarModelTests {
+
+    private static final double LONDON_LAT = 51.5074;
+    private static final double LONDON_LON = -0.1278;
+    private static final double SYDNEY_LAT = -33.8688;
+    private static final double SYDNEY_LON = 151.2093;
+    private static final double SVALBARD_LAT = 78.22;
+    private static final double SVALBARD_LON = 15.65;
+
+    // Published times are rounded to the minute; the model is good to about a minute beyond that
+    private static final long TOLERANCE_SECONDS = 120;
+
+    @Test
+    void londonSunriseAndSunset() {
+        // 07:30 and 18:00 BST
+        long autumn = day("2026-10-19");
+        assertThat(SolarModel.sunrise(LONDON_LAT, LONDON_LON, autumn))
+                .isCloseTo(epoch("2026-10-19T06:30:00Z"), within(TOLERANCE_SECONDS));
+        assertThat(SolarModel.sunset(LONDON_LAT, LONDON_LON, autumn))
+                .isCloseTo(epoch("2026-10-19T17:00:00Z"), within(TOLERANCE_SECONDS));
+
+        // 04:43 and 21:21 BST
+        long midsummer = day("2026-06-21");
+        assertThat(SolarModel.sunrise(LONDON_LAT, LONDON_LON, midsummer))
+                .isCloseTo(epoch("2026-06-21T03:43:00Z"), within(TOLERANCE_SECONDS));
+        assertThat(SolarModel.sunset(LONDON_LAT, LONDON_LON, midsummer))
+                .isCloseTo(epoch("2026-06-21T20:21:00Z"), within(TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void sydneySunriseAndSunset() {
+        // 07:00 and 16:54 AEST; sunrise falls on the previous UTC day
+        long winter = day("2026-06-21");
+        assertThat(SolarModel.sunrise(SYDNEY_LAT, SYDNEY_LON, winter))
+                .isCloseTo(epoch("2026-06-20T21:00:00Z"), within(TOLERANCE_SECONDS));
+        assertThat(SolarModel.sunset(SYDNEY_LAT, SYDNEY_LON, winter))
+                .isCloseTo(epoch("2026-06-21T06:54:00Z"), within(TOLERANCE_SECONDS));
+
+        // 05:41 and 20:05 AEDT
+        long summer = day("2026-12-21");
+        assertThat(SolarModel.sunrise(SYDNEY_LAT, SYDNEY_LON, summer))
+                .isCloseTo(epoch("2026-12-20T18:41:00Z"), within(TOLERANCE_SECONDS));
+        assertThat(SolarModel.sunset(SYDNEY_LAT, SYDNEY_LON, summer))
+                .isCloseTo(epoch("2026-12-21T09:05:00Z"), within(TOLERANCE_SECONDS));
+    }
+
+    @Test
+    void polarNightHasNoSunriseOrSunset() {
+        long midwinter = day("2026-12-21");
+        assertThat(SolarModel.sunrise(SVALBARD_LAT, SVALBARD_LON, midwinter)).isEqualTo(SolarModel.NO_EVENT);
+        assertThat(SolarModel.sunset(SVALBARD_LAT, SVALBARD_LON, midwinter)).isEqualTo(SolarModel.NO_EVENT);
+        assertThat(SolarModel.elevation(SVALBARD_LAT, SVALBARD_LON, SolarModel.solarNoon(SVALBARD_LON, midwinter)))
+                .isLessThan(0);
+    }
+
+    @Test
+    void midnightSunHasNoSunriseOrSunset() {
+        long midsummer = day("2026-06-21");
+        assertThat(SolarModel.sunrise(SVALBARD_LAT, SVALBARD_LON, midsummer)).isEqualTo(SolarModel.NO_EVENT);
+        assertThat(SolarModel.sunset(SVALBARD_LAT, SVALBARD_LON, midsummer)).isEqualTo(SolarModel.NO_EVENT);
+        // Still above the horizon at local midnight
+        long midnight = SolarModel.solarNoon(SVALBARD_LON, midsummer) + 12 * 3600;
+        assertThat(SolarModel.elevation(SVALBARD_LAT, SVALBARD_LON, midnight)).isGreaterThan(0);
+    }
+
+    @Test
+    void uvIsZeroAtNight() {
+        long midnight = epoch("2026-06-21T23:00:00Z");
+        double elevation = SolarModel.elevation(LONDON_LAT, LONDON_LON, midnight);
+
+        assertThat(elevation).isLessThan(0);
+        assertThat(SolarModel.clearSkyUvIndex(elevation)).isZero();
+        assertThat(SolarModel.uvIndex(elevation, 0)).isZero();
+    }
+
+    @Test
+    void cloudsAttenuateUv() {
+        double clearSky = SolarModel.clearSkyUvIndex(60);
+
+        assertThat(SolarModel.uvIndex(60, 0)).isCloseTo(clearSky, within(1e-9));
+        assertThat(SolarModel.uvIndex(60, 50)).isLessThan(clearSky).isGreaterThan(SolarModel.uvIndex(60, 100));
+        // Overcast keeps a quarter of the clear-sky value
+        assertThat(SolarModel.uvIndex(60, 100)).isCloseTo(0.25 * clearSky, within(1e-9));
+    }
+
+    private static long day(String date) {
+        return LocalDate.parse(date).toEpochDay();
+    }
+
+    private static long epoch(String instant) {
+        return Instant.parse(instant).getEpochSecond();
+    }
+}